@@ -11,7 +11,9 @@ using analyzer;
 using Antlr4.Runtime;
 using Antlr4.Runtime.Misc;
 using Antlr4.Runtime.Tree;
+using Microsoft.AspNetCore.Http.Features;
 using Microsoft.AspNetCore.Mvc;
+using Microsoft.AspNetCore.RateLimiting;
 using Microsoft.Extensions.Logging;
 
 namespace api.Controllers
@@ -30,10 +32,26 @@ namespace api.Controllers
         {
             [Required]
             public required string code { get; set; }
+
+            // "visitor" ejecuta con el CompilerVisitor sobre los contextos de ANTLR,
+            // "compiled" compila el AST a delegados de .NET (AstCompiler),
+            // "vm" lo compila a bytecode de registros y lo ejecuta en BytecodeVM
+            public string? engine { get; set; }
+        }
+
+        public class EditRequest
+        {
+            public int offset { get; set; }
+            public int length { get; set; }
+
+            [Required(AllowEmptyStrings = true)]
+            public required string text { get; set; }
         }
 
         // POST /compile
+        // Cuenta para el limite de ejecuciones concurrentes (Execution en appsettings)
         [HttpPost]
+        [EnableRateLimiting("ejecucion")]
         public IActionResult Post([FromBody] CompileRequest request)
         {
             if (!ModelState.IsValid)
@@ -41,31 +59,63 @@ namespace api.Controllers
                 return BadRequest(new { error = "Invalid request" });
             }
 
-            var inputStream = new AntlrInputStream(request.code);
-            var lexer = new LanguageLexer(inputStream);
+            try
+            {
+                if (request.engine == "visitor")
+                {
+                    // SLL primero y LL solo si hace falta
+                    var tree = ParserDriver.Parse(request.code);
+
+                    var visitor = new CompilerVisitor();
+                    visitor.budget = ExecutionBudget.FromDefaults();
+                    visitor.Visit(tree);
+                    visitor.ExecuteMain();
 
-            // Add custom error listener
-            lexer.RemoveErrorListeners();
-            lexer.AddErrorListener(new LexicalErrorListener());
+                    return Ok(new
+                    {
+                        result = visitor.output,
+                        symbols = visitor.symbolTable.getList()
+                    });
+                }
 
-            var tokens = new CommonTokenStream(lexer);
-            var parser = new LanguageParser(tokens);
+                // Se evalua sobre el AST compacto en lugar de los contextos,
+                // un codigo que ya se envio antes sale del cache sin volver a parsearse
+                var program = ParseCache.Shared.GetOrLower(request.code);
 
-            parser.RemoveErrorListeners();
-            parser.AddErrorListener(new SyntaxErrorListener());
+                if (request.engine == "compiled")
+                {
+                    var compiled = AstCompiler.Compile(program);
+                    compiled.Budget = ExecutionBudget.FromDefaults();
+                    compiled.Run();
 
-            try
-            {
-                var tree = parser.program();
+                    return Ok(new
+                    {
+                        result = compiled.Output,
+                        symbols = compiled.symbolTable.getList()
+                    });
+                }
+
+                if (request.engine == "vm")
+                {
+                    var vm = new BytecodeVM(BytecodeCompiler.Compile(program));
+                    vm.Budget = ExecutionBudget.FromDefaults();
+                    vm.Run();
+
+                    return Ok(new
+                    {
+                        result = vm.Output,
+                        symbols = vm.symbolTable.getList()
+                    });
+                }
+
+                var interpreter = new AstInterpreter();
+                interpreter.Budget = ExecutionBudget.FromDefaults();
+                interpreter.Run(program);
 
-                var visitor = new CompilerVisitor();
-                visitor.Visit(tree);
-                visitor.ExecuteMain();
-              
                 return Ok(new
                 {
-                    result = visitor.output,
-                    symbols = visitor.symbolTable.getList()
+                    result = interpreter.Output,
+                    symbols = interpreter.symbolTable.getList()
                 });
 
             }
@@ -77,10 +127,368 @@ namespace api.Controllers
             {
                 return BadRequest(new { error = ex.Message });
             }
+            catch (ExecutionLimitException ex)
+            {
+                return BadRequest(new { error = ex.Message });
+            }
             catch (ContinueException)
             {
                 return BadRequest(new { error = "Statment no loop" });
             }
+            catch (BreakException)
+            {
+                return BadRequest(new { error = "Statment no loop" });
+            }
+        }
+
+
+        // POST /compile/stream
+        // Igual que POST /compile pero la salida de fmt.Println se envia por partes mientras el programa corre.
+        // Un error durante la ejecucion se agrega al final como una linea "error: ..."
+        [HttpPost("stream")]
+        [EnableRateLimiting("ejecucion")]
+        public IActionResult StreamOutput([FromBody] CompileRequest request)
+        {
+            if (!ModelState.IsValid)
+            {
+                return BadRequest(new { error = "Invalid request" });
+            }
+
+            AstProgram program;
+            try
+            {
+                program = ParseCache.Shared.GetOrLower(request.code);
+            }
+            catch (ParseCanceledException ex)
+            {
+                return BadRequest(new { error = ex.Message });
+            }
+            catch (SemanticError ex)
+            {
+                return BadRequest(new { error = ex.Message });
+            }
+
+            // Los interpretes son sincronos, escriben directo al cuerpo de la respuesta
+            HttpContext.Features.Get<IHttpBodyControlFeature>()!.AllowSynchronousIO = true;
+            Response.ContentType = "text/plain; charset=utf-8";
+
+            var sink = new StreamOutputSink(Response.Body);
+            try
+            {
+                if (request.engine == "compiled")
+                {
+                    var compiled = AstCompiler.Compile(program);
+                    compiled.Budget = ExecutionBudget.FromDefaults();
+                    compiled.Sink = sink;
+                    compiled.Run();
+                }
+                else if (request.engine == "vm")
+                {
+                    var vm = new BytecodeVM(BytecodeCompiler.Compile(program));
+                    vm.Budget = ExecutionBudget.FromDefaults();
+                    vm.Sink = sink;
+                    vm.Run();
+                }
+                else
+                {
+                    var interpreter = new AstInterpreter();
+                    interpreter.Budget = ExecutionBudget.FromDefaults();
+                    interpreter.Sink = sink;
+                    interpreter.Run(program);
+                }
+            }
+            catch (SemanticError ex)
+            {
+                sink.Write("error: " + ex.Message + "\n");
+            }
+            catch (ExecutionLimitException ex)
+            {
+                sink.Write("error: " + ex.Message + "\n");
+            }
+            catch (ContinueException)
+            {
+                sink.Write("error: Statment no loop\n");
+            }
+            catch (BreakException)
+            {
+                sink.Write("error: Statment no loop\n");
+            }
+            catch (System.Exception ex)
+            {
+                // La respuesta ya empezo, cualquier otra falla tambien termina en la linea de error
+                sink.Write("error: " + ex.Message + "\n");
+            }
+            finally
+            {
+                sink.Flush();
+            }
+
+            return new EmptyResult();
+        }
+
+
+        // POST /compile/footprint
+        // Bytes retenidos por linea: arbol de ANTLR contra AST compacto
+        [HttpPost("footprint")]
+        [EnableRateLimiting("ejecucion")]
+        public IActionResult Footprint([FromBody] CompileRequest request)
+        {
+            if (!ModelState.IsValid)
+            {
+                return BadRequest(new { error = "Invalid request" });
+            }
+
+            try
+            {
+                var footprint = AstLowering.MeasureFootprint(request.code);
+
+                return Ok(new
+                {
+                    lines = footprint.Lines,
+                    parseTreeBytesPerLine = footprint.ParseTreeBytes / footprint.Lines,
+                    astBytesPerLine = footprint.AstBytes / footprint.Lines
+                });
+            }
+            catch (ParseCanceledException ex)
+            {
+                return BadRequest(new { error = ex.Message });
+            }
+            catch (SemanticError ex)
+            {
+                return BadRequest(new { error = ex.Message });
+            }
+        }
+
+        // POST /compile/bytecode
+        // Listado de las instrucciones de la VM de registros, para revisar lo que genera el compilador
+        [HttpPost("bytecode")]
+        [EnableRateLimiting("ejecucion")]
+        public IActionResult Bytecode([FromBody] CompileRequest request)
+        {
+            if (!ModelState.IsValid)
+            {
+                return BadRequest(new { error = "Invalid request" });
+            }
+
+            try
+            {
+                var program = ParseCache.Shared.GetOrLower(request.code);
+                return Content(BytecodeCompiler.Compile(program).Disassemble(), "text/plain");
+            }
+            catch (ParseCanceledException ex)
+            {
+                return BadRequest(new { error = ex.Message });
+            }
+            catch (SemanticError ex)
+            {
+                return BadRequest(new { error = ex.Message });
+            }
+        }
+
+        // GET /compile/equivalence
+        // Ejecuta los archivos de entrada con el interprete, el backend compilado y la VM y compara la salida
+        [HttpGet("equivalence")]
+        [EnableRateLimiting("ejecucion")]
+        public IActionResult Equivalence()
+        {
+            string directory = Path.Combine(Directory.GetCurrentDirectory(), "../archivos_entrada");
+            if (!Directory.Exists(directory))
+            {
+                return BadRequest(new { error = "No se encontro la carpeta archivos_entrada" });
+            }
+
+            var files = new List<object>();
+            foreach (var file in Directory.GetFiles(directory, "*.glt").OrderBy(f => f))
+            {
+                string code = System.IO.File.ReadAllText(file);
+
+                string interpreted = RunEngine(code, program =>
+                {
+                    var interpreter = new AstInterpreter();
+                    interpreter.Budget = ExecutionBudget.FromDefaults();
+                    interpreter.Run(program);
+                    return interpreter.Output;
+                });
+                string compiled = RunEngine(code, program =>
+                {
+                    var compiledProgram = AstCompiler.Compile(program);
+                    compiledProgram.Budget = ExecutionBudget.FromDefaults();
+                    compiledProgram.Run();
+                    return compiledProgram.Output;
+                });
+                string vm = RunEngine(code, program =>
+                {
+                    var machine = new BytecodeVM(BytecodeCompiler.Compile(program));
+                    machine.Budget = ExecutionBudget.FromDefaults();
+                    machine.Run();
+                    return machine.Output;
+                });
+
+                files.Add(new
+                {
+                    file = Path.GetFileName(file),
+                    equal = interpreted == compiled && interpreted == vm,
+                    interpreted,
+                    compiled,
+                    vm
+                });
+            }
+
+            return Ok(files);
+        }
+
+        // Salida del programa, o el mensaje de error si la ejecucion falla
+        private static string RunEngine(string code, Func<AstProgram, string> run)
+        {
+            try
+            {
+                return run(AstLowering.Lower(ParserDriver.Parse(code)));
+            }
+            catch (System.Exception ex)
+            {
+                return "error: " + ex.Message;
+            }
+        }
+
+        // POST /compile/profile?format=text
+        // Estadisticas por decision del parser (invocaciones, lookahead, fallbacks a LL, ambiguedades, tiempo)
+        [HttpPost("profile")]
+        [EnableRateLimiting("ejecucion")]
+        public IActionResult Profile([FromBody] CompileRequest request, [FromQuery] string? format)
+        {
+            if (!ModelState.IsValid)
+            {
+                return BadRequest(new { error = "Invalid request" });
+            }
+
+            try
+            {
+                var profiles = ParserProfiler.Profile(request.code);
+
+                if (format == "text")
+                {
+                    return Content(ParserProfiler.Table(profiles), "text/plain");
+                }
+
+                return Ok(new { decisions = profiles });
+            }
+            catch (ParseCanceledException ex)
+            {
+                return BadRequest(new { error = ex.Message });
+            }
+        }
+
+        // POST /compile/incremental/{session}
+        // Abre o reemplaza el documento de una sesion del editor
+        [HttpPost("incremental/{session}")]
+        [EnableRateLimiting("ejecucion")]
+        public IActionResult OpenIncremental(string session, [FromBody] CompileRequest request)
+        {
+            if (!ModelState.IsValid)
+            {
+                return BadRequest(new { error = "Invalid request" });
+            }
+
+            if (!EditorSessions.Shared.Fits(request.code.Length))
+            {
+                return BadRequest(new { error = "Documento demasiado grande" });
+            }
+
+            var parser = EditorSessions.Shared.Open(session);
+            if (parser == null)
+            {
+                return StatusCode(StatusCodes.Status503ServiceUnavailable, new { error = "No hay espacio para mas sesiones" });
+            }
+
+            lock (parser)
+            {
+                return IncrementalResult(parser, () => parser.Open(request.code));
+            }
+        }
+
+        // PATCH /compile/incremental/{session}
+        // Aplica una edicion y solo reparsea las declaraciones que toca
+        [HttpPatch("incremental/{session}")]
+        [EnableRateLimiting("ejecucion")]
+        public IActionResult EditIncremental(string session, [FromBody] EditRequest request)
+        {
+            if (!ModelState.IsValid)
+            {
+                return BadRequest(new { error = "Invalid request" });
+            }
+
+            var parser = EditorSessions.Shared.Get(session);
+            if (parser == null)
+            {
+                return NotFound(new { error = "Sesion no encontrada" });
+            }
+
+            lock (parser)
+            {
+                if (!EditorSessions.Shared.Fits(parser.Text.Length - request.length + request.text.Length))
+                {
+                    return BadRequest(new { error = "Documento demasiado grande" });
+                }
+
+                return IncrementalResult(parser, () => parser.Edit(request.offset, request.length, request.text));
+            }
+        }
+
+        // DELETE /compile/incremental/{session}
+        [HttpDelete("incremental/{session}")]
+        public IActionResult CloseIncremental(string session)
+        {
+            EditorSessions.Shared.Close(session);
+            return Ok();
+        }
+
+        private IActionResult IncrementalResult(IncrementalParser parser, Action parse)
+        {
+            try
+            {
+                parse();
+
+                return Ok(new
+                {
+                    declarations = parser.Count,
+                    reparsed = parser.Reparsed,
+                    full = parser.FullReparse
+                });
+            }
+            catch (ParseCanceledException ex)
+            {
+                return BadRequest(new { error = ex.Message });
+            }
+            catch (ArgumentOutOfRangeException ex)
+            {
+                return BadRequest(new { error = ex.Message });
+            }
+        }
+
+        // GET /compile/stats
+        [HttpGet("stats")]
+        public IActionResult Stats()
+        {
+            return Ok(new
+            {
+                sllParses = ParserDriver.SllParses,
+                llFallbacks = ParserDriver.LlFallbacks,
+                dfaStates = ParserWarmup.DfaStates(),
+                pool = new
+                {
+                    created = ParserPool.Shared.Created,
+                    reused = ParserPool.Shared.Reused,
+                    idle = ParserPool.Shared.Idle
+                },
+                cache = new
+                {
+                    hits = ParseCache.Shared.Hits,
+                    misses = ParseCache.Shared.Misses,
+                    evictions = ParseCache.Shared.Evictions,
+                    entries = ParseCache.Shared.Count,
+                    weight = ParseCache.Shared.Weight
+                }
+            });
         }
 
 
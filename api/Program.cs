@@ -1,5 +1,8 @@
 
 
+using System.Threading.RateLimiting;
+using Microsoft.AspNetCore.RateLimiting;
+
 var builder = WebApplication.CreateBuilder(args);
 
 // Add services to the container.
@@ -21,6 +24,29 @@ builder.Services.AddCors(options =>
 });
 
 
+// * Limite de programas ejecutandose a la vez. Los pedidos de mas esperan en una cola
+// * sin ocupar un hilo; con la cola llena se responde 503 para que el cliente reintente
+var maxConcurrent = builder.Configuration.GetValue("Execution:MaxConcurrent", System.Environment.ProcessorCount * 2);
+var queueLimit = builder.Configuration.GetValue("Execution:QueueLimit", 1000);
+
+builder.Services.AddRateLimiter(options =>
+{
+    options.RejectionStatusCode = StatusCodes.Status503ServiceUnavailable;
+    options.OnRejected = (context, _) =>
+    {
+        context.HttpContext.Response.Headers.RetryAfter = "1";
+        return ValueTask.CompletedTask;
+    };
+
+    options.AddConcurrencyLimiter("ejecucion", limiter =>
+    {
+        limiter.PermitLimit = maxConcurrent;
+        limiter.QueueLimit = queueLimit;
+        limiter.QueueProcessingOrder = QueueProcessingOrder.OldestFirst;
+    });
+});
+
+
 // * Agregar swagger
 // * dotnet add package Swashbuckle.AspNetCore
 builder.Services.AddEndpointsApiExplorer();
@@ -40,7 +66,51 @@ app.UseHttpsRedirection();
 
 app.UseCors("AllowAll");
 
+app.UseRateLimiter();
+
 // * Agregar controladores
 app.MapControllers();
 
+// * Cache de programas parseados, limites por cantidad y por caracteres de codigo
+var cacheEntries = app.Configuration.GetValue("Parser:Cache:MaxEntries", 512);
+var cacheWeight = app.Configuration.GetValue("Parser:Cache:MaxWeight", 16L * 1024 * 1024);
+ParseCache.Shared = new ParseCache(cacheEntries, cacheWeight);
+
+// * Pares lexer/parser reutilizables, por defecto dos por nucleo
+var poolSize = app.Configuration.GetValue("Parser:PoolSize", System.Environment.ProcessorCount * 2);
+ParserPool.Shared = new ParserPool(poolSize);
+
+// * Sesiones del editor: cantidad, largo del documento en caracteres y minutos sin uso antes de descartarla
+var maxSessions = app.Configuration.GetValue("Parser:Incremental:MaxSessions", 256);
+var maxDocumentLength = app.Configuration.GetValue("Parser:Incremental:MaxDocumentLength", 1024 * 1024);
+var idleMinutes = app.Configuration.GetValue("Parser:Incremental:IdleMinutes", 30);
+EditorSessions.Shared = new EditorSessions(maxSessions, maxDocumentLength, TimeSpan.FromMinutes(idleMinutes));
+
+// * Parseo en paralelo solo para archivos grandes, en caracteres de codigo
+ParallelParser.MinLength = app.Configuration.GetValue("Parser:Parallel:MinLength", ParallelParser.MinLength);
+ParallelParser.MinChunkTokens = app.Configuration.GetValue("Parser:Parallel:MinChunkTokens", ParallelParser.MinChunkTokens);
+
+// * Limites de ejecucion para los programas enviados
+ExecutionBudget.DefaultMaxSteps = app.Configuration.GetValue("Sandbox:MaxSteps", ExecutionBudget.DefaultMaxSteps);
+ExecutionBudget.DefaultTimeoutMs = app.Configuration.GetValue("Sandbox:TimeoutMs", ExecutionBudget.DefaultTimeoutMs);
+ExecutionBudget.DefaultMemoryBudget = app.Configuration.GetValue("Sandbox:MemoryBudget", ExecutionBudget.DefaultMemoryBudget);
+ExecutionBudget.DefaultAllocationBudget = app.Configuration.GetValue("Sandbox:AllocationBudget", ExecutionBudget.DefaultAllocationBudget);
+ExecutionBudget.DefaultMaxDepth = app.Configuration.GetValue("Sandbox:MaxDepth", ExecutionBudget.DefaultMaxDepth);
+
+// * Precalentar los DFA del parser con los archivos de ejemplo y, si Parser:DfaCache tiene una ruta,
+//   con los programas de usuarios guardados ahi en el cierre anterior (apagado por defecto)
+var dfaCache = app.Configuration["Parser:DfaCache"];
+var warmupDirectory = app.Configuration["Parser:WarmupDirectory"];
+
+if (!string.IsNullOrEmpty(dfaCache))
+{
+    ParserWarmup.Load(dfaCache);
+    app.Lifetime.ApplicationStopping.Register(() => ParserWarmup.Save(dfaCache));
+}
+
+if (!string.IsNullOrEmpty(warmupDirectory))
+{
+    ParserWarmup.WarmUpDirectory(warmupDirectory);
+}
+
 app.Run();
\ No newline at end of file
@@ -0,0 +1,21 @@
+using System.Linq;
+
+namespace analyzer
+{
+    // Acceso a los DFA compartidos que genera ANTLR (se llenan al parsear)
+    public partial class LanguageParser
+    {
+        public static int DfaStateCount()
+        {
+            return decisionToDFA.Sum(dfa => dfa.states.Count);
+        }
+    }
+
+    public partial class LanguageLexer
+    {
+        public static int DfaStateCount()
+        {
+            return decisionToDFA.Sum(dfa => dfa.states.Count);
+        }
+    }
+}
@@ -0,0 +1,556 @@
+using Antlr4.Runtime;
+
+// AST compacto que se obtiene a partir del arbol de ANTLR (ver AstLowering).
+// Los nodos son inmutables, no guardan padre ni tokens, solo la posicion empaquetada en un int.
+
+public static class SourcePos
+{
+    public static int Pack(IToken token)
+    {
+        return (token.Line << 10) | Math.Min(token.Column, 1023);
+    }
+
+    public static int Line(int pos)
+    {
+        return pos >> 10;
+    }
+
+    public static int Column(int pos)
+    {
+        return pos & 1023;
+    }
+}
+
+public enum BinaryOp
+{
+    Add, Sub, Mul, Div, Mod,
+    Lt, Le, Gt, Ge,
+    Eq, Ne,
+    And, Or
+}
+
+public static class BinaryOps
+{
+    public static bool IsComparison(this BinaryOp op)
+    {
+        return op >= BinaryOp.Lt && op <= BinaryOp.Ne;
+    }
+}
+
+// Tipo estatico que infiere TypeChecker, Unknown cuando solo se conoce en ejecucion.
+// Los slices y matrices de int y float64 se distinguen para leer directo de su arreglo
+public enum StaticType
+{
+    Unknown, Int, Float, String, Bool, Rune, IntSlice, FloatSlice, IntMatrix, FloatMatrix
+}
+
+public abstract class AstNode
+{
+    public readonly int Pos;
+
+    protected AstNode(int pos)
+    {
+        Pos = pos;
+    }
+}
+
+public sealed class AstProgram
+{
+    public readonly AstStmt[] Declarations;
+    public readonly int FrameSize;
+
+    public AstProgram(AstStmt[] declarations, int frameSize)
+    {
+        Declarations = declarations;
+        FrameSize = frameSize;
+    }
+}
+
+
+// Expresiones
+public abstract class AstExpr : AstNode
+{
+    protected AstExpr(int pos) : base(pos) { }
+}
+
+public sealed class IntLiteral : AstExpr
+{
+    public readonly int Value;
+    public IntLiteral(int pos, int value) : base(pos) { Value = value; }
+}
+
+public sealed class FloatLiteral : AstExpr
+{
+    public readonly decimal Value;
+    public FloatLiteral(int pos, decimal value) : base(pos) { Value = value; }
+}
+
+public sealed class StringLiteral : AstExpr
+{
+    public readonly string Value;
+    public StringLiteral(int pos, string value) : base(pos) { Value = value; }
+}
+
+public sealed class BoolLiteral : AstExpr
+{
+    public readonly bool Value;
+    public BoolLiteral(int pos, bool value) : base(pos) { Value = value; }
+}
+
+public sealed class RuneLiteral : AstExpr
+{
+    public readonly char Value;
+    public RuneLiteral(int pos, char value) : base(pos) { Value = value; }
+}
+
+public sealed class NilLiteral : AstExpr
+{
+    public NilLiteral(int pos) : base(pos) { }
+}
+
+// Variable resuelta en el lowering: Depth frames hacia arriba, posicion Slot dentro del frame
+public sealed class VarRef : AstExpr
+{
+    public readonly string Name;
+    public readonly int Depth;
+    public readonly int Slot;
+
+    public VarRef(int pos, string name, int depth, int slot) : base(pos)
+    {
+        Name = name;
+        Depth = depth;
+        Slot = slot;
+    }
+}
+
+// fmt.Println, strconv.Atoi, ...
+public sealed class BuiltinRef : AstExpr
+{
+    public readonly string Name;
+    public BuiltinRef(int pos, string name) : base(pos) { Name = name; }
+}
+
+public sealed class Binary : AstExpr
+{
+    public readonly BinaryOp Op;
+    public readonly AstExpr Left;
+    public readonly AstExpr Right;
+
+    public Binary(int pos, BinaryOp op, AstExpr left, AstExpr right) : base(pos)
+    {
+        Op = op;
+        Left = left;
+        Right = right;
+    }
+}
+
+// Nodos especializados de TypeChecker: ambos operandos tienen tipo estatico conocido,
+// se evaluan sin ValueWrapper intermedios y sin revisar tipos en ejecucion.
+// La aritmetica da int o float64 y las comparaciones dan bool.
+public sealed class IntBinary : AstExpr
+{
+    public readonly BinaryOp Op;
+    public readonly AstExpr Left;
+    public readonly AstExpr Right;
+
+    public IntBinary(int pos, BinaryOp op, AstExpr left, AstExpr right) : base(pos)
+    {
+        Op = op;
+        Left = left;
+        Right = right;
+    }
+}
+
+// Los operandos int se envuelven en IntToFloat
+public sealed class FloatBinary : AstExpr
+{
+    public readonly BinaryOp Op;
+    public readonly AstExpr Left;
+    public readonly AstExpr Right;
+
+    public FloatBinary(int pos, BinaryOp op, AstExpr left, AstExpr right) : base(pos)
+    {
+        Op = op;
+        Left = left;
+        Right = right;
+    }
+}
+
+public sealed class IntToFloat : AstExpr
+{
+    public readonly AstExpr Operand;
+    public IntToFloat(int pos, AstExpr operand) : base(pos) { Operand = operand; }
+}
+
+public sealed class Negate : AstExpr
+{
+    public readonly AstExpr Operand;
+    public Negate(int pos, AstExpr operand) : base(pos) { Operand = operand; }
+}
+
+public sealed class Not : AstExpr
+{
+    public readonly AstExpr Operand;
+    public Not(int pos, AstExpr operand) : base(pos) { Operand = operand; }
+}
+
+// x = valor, x[i] = valor, x[i][j] = valor, x.campo = valor
+public sealed class Assign : AstExpr
+{
+    public readonly AstExpr Target;
+    public readonly AstExpr Value;
+
+    public Assign(int pos, AstExpr target, AstExpr value) : base(pos)
+    {
+        Target = target;
+        Value = value;
+    }
+}
+
+// x += valor, x -= valor
+public sealed class CompoundAssign : AstExpr
+{
+    public readonly VarRef Target;
+    public readonly BinaryOp Op;
+    public readonly AstExpr Value;
+
+    public CompoundAssign(int pos, VarRef target, BinaryOp op, AstExpr value) : base(pos)
+    {
+        Target = target;
+        Op = op;
+        Value = value;
+    }
+}
+
+// x++, x--
+public sealed class IncDec : AstExpr
+{
+    public readonly VarRef Target;
+    public readonly int Delta;
+
+    public IncDec(int pos, VarRef target, int delta) : base(pos)
+    {
+        Target = target;
+        Delta = delta;
+    }
+}
+
+public sealed class SliceLiteral : AstExpr
+{
+    public readonly string ElementType;
+    public readonly AstExpr[] Elements;
+
+    public SliceLiteral(int pos, string elementType, AstExpr[] elements) : base(pos)
+    {
+        ElementType = elementType;
+        Elements = elements;
+    }
+}
+
+public sealed class IndexExpr : AstExpr
+{
+    public readonly VarRef Array;
+    public readonly AstExpr Index;
+
+    public IndexExpr(int pos, VarRef array, AstExpr index) : base(pos)
+    {
+        Array = array;
+        Index = index;
+    }
+}
+
+public sealed class MatrixIndexExpr : AstExpr
+{
+    public readonly VarRef Matrix;
+    public readonly AstExpr Row;
+    public readonly AstExpr Column;
+
+    public MatrixIndexExpr(int pos, VarRef matrix, AstExpr row, AstExpr column) : base(pos)
+    {
+        Matrix = matrix;
+        Row = row;
+        Column = column;
+    }
+}
+
+public sealed class StructLiteral : AstExpr
+{
+    public readonly VarRef Type;
+    public readonly string[] Fields;
+    public readonly AstExpr[] Values;
+
+    public readonly FieldCache Cache;
+
+    public StructLiteral(int pos, VarRef type, string[] fields, AstExpr[] values) : base(pos)
+    {
+        Type = type;
+        Fields = fields;
+        Values = values;
+        Cache = new FieldCache(fields);
+    }
+
+    public string StructName => Type.Name;
+}
+
+public sealed class Call : AstExpr
+{
+    public readonly AstExpr Callee;
+    public readonly AstExpr[] Args;
+
+    public Call(int pos, AstExpr callee, AstExpr[] args) : base(pos)
+    {
+        Callee = callee;
+        Args = args;
+    }
+}
+
+public sealed class FieldGet : AstExpr
+{
+    public readonly AstExpr Target;
+    public readonly string Field;
+
+    public readonly FieldCache Cache;
+
+    public FieldGet(int pos, AstExpr target, string field) : base(pos)
+    {
+        Target = target;
+        Field = field;
+        Cache = new FieldCache(field);
+    }
+}
+
+
+// Sentencias y declaraciones
+public abstract class AstStmt : AstNode
+{
+    protected AstStmt(int pos) : base(pos) { }
+}
+
+public sealed class ExprStmt : AstStmt
+{
+    public readonly AstExpr Expr;
+    public ExprStmt(int pos, AstExpr expr) : base(pos) { Expr = expr; }
+}
+
+public sealed class Block : AstStmt
+{
+    public readonly AstStmt[] Body;
+    public Block(int pos, AstStmt[] body) : base(pos) { Body = body; }
+}
+
+// var x T = e | var x T | x := e | x T
+// Slot es -1 en los campos de un struct
+public sealed class VarDecl : AstStmt
+{
+    public readonly string Name;
+    public readonly string? Type;
+    public readonly AstExpr? Init;
+    public readonly int Slot;
+
+    public VarDecl(int pos, string name, string? type, AstExpr? init, int slot) : base(pos)
+    {
+        Name = name;
+        Type = type;
+        Init = init;
+        Slot = slot;
+    }
+}
+
+// var x []T
+public sealed class SliceDecl : AstStmt
+{
+    public readonly string Name;
+    public readonly string ElementType;
+    public readonly int Slot;
+
+    public SliceDecl(int pos, string name, string elementType, int slot) : base(pos)
+    {
+        Name = name;
+        ElementType = elementType;
+        Slot = slot;
+    }
+}
+
+// x := [][]T{ {...}, ... }
+public sealed class MatrixDecl : AstStmt
+{
+    public readonly string Name;
+    public readonly string ElementType;
+    public readonly AstExpr[][] Rows;
+    public readonly int Slot;
+
+    public MatrixDecl(int pos, string name, string elementType, AstExpr[][] rows, int slot) : base(pos)
+    {
+        Name = name;
+        ElementType = elementType;
+        Rows = rows;
+        Slot = slot;
+    }
+}
+
+// Los parametros ocupan los slots 0..n-1 del frame de la funcion
+public sealed class FuncDecl : AstStmt
+{
+    public readonly string Name;
+    public readonly string[] Params;
+    public readonly string[] ParamTypes;
+    public readonly string? ReturnType;
+    public readonly AstStmt[] Body;
+    public readonly int Slot;
+    public readonly int FrameSize;
+
+    // Tipo de cada slot en toda la funcion (TypeChecker), vacio si no se conoce.
+    // Los slots int, bool y rune se guardan sin caja en Frame.Scalars (AstCompiler)
+    public readonly StaticType[] SlotTypes;
+    public readonly bool HasScalars;
+
+    public FuncDecl(int pos, string name, string[] parameters, string[] paramTypes, string? returnType, AstStmt[] body, int slot, int frameSize, StaticType[]? slotTypes = null) : base(pos)
+    {
+        Name = name;
+        Params = parameters;
+        ParamTypes = paramTypes;
+        ReturnType = returnType;
+        Body = body;
+        Slot = slot;
+        FrameSize = frameSize;
+        SlotTypes = slotTypes ?? Array.Empty<StaticType>();
+        HasScalars = Array.Exists(SlotTypes, IsScalar);
+    }
+
+    public StaticType ScalarType(int slot)
+    {
+        return (uint)slot < (uint)SlotTypes.Length && IsScalar(SlotTypes[slot]) ? SlotTypes[slot] : StaticType.Unknown;
+    }
+
+    private static bool IsScalar(StaticType type)
+    {
+        return type == StaticType.Int || type == StaticType.Bool || type == StaticType.Rune;
+    }
+}
+
+public sealed class StructDecl : AstStmt
+{
+    public readonly string Name;
+    public readonly VarDecl[] Fields;
+    public readonly int Slot;
+    public readonly StructLayout Layout;
+
+    public StructDecl(int pos, string name, VarDecl[] fields, int slot) : base(pos)
+    {
+        Name = name;
+        Fields = fields;
+        Slot = slot;
+        Layout = new StructLayout(fields);
+    }
+}
+
+public sealed class IfStmt : AstStmt
+{
+    public readonly AstExpr Condition;
+    public readonly AstStmt Then;
+    public readonly AstStmt? Else;
+
+    public IfStmt(int pos, AstExpr condition, AstStmt then, AstStmt? otherwise) : base(pos)
+    {
+        Condition = condition;
+        Then = then;
+        Else = otherwise;
+    }
+}
+
+public sealed class SwitchCase
+{
+    public readonly AstExpr Value;
+    public readonly AstStmt[] Body;
+
+    public SwitchCase(AstExpr value, AstStmt[] body)
+    {
+        Value = value;
+        Body = body;
+    }
+}
+
+public sealed class SwitchStmt : AstStmt
+{
+    public readonly AstExpr Subject;
+    public readonly SwitchCase[] Cases;
+    public readonly AstStmt[]? Default;
+
+    // null si algun case no es literal
+    public readonly JumpTable? Table;
+
+    public SwitchStmt(int pos, AstExpr subject, SwitchCase[] cases, AstStmt[]? defaultBody) : base(pos)
+    {
+        Subject = subject;
+        Cases = cases;
+        Default = defaultBody;
+        Table = JumpTable.For(cases);
+    }
+}
+
+// for init; cond; update stmt
+public sealed class ForStmt : AstStmt
+{
+    public readonly AstStmt Init;
+    public readonly AstExpr Condition;
+    public readonly AstExpr Update;
+    public readonly AstStmt Body;
+
+    public ForStmt(int pos, AstStmt init, AstExpr condition, AstExpr update, AstStmt body) : base(pos)
+    {
+        Init = init;
+        Condition = condition;
+        Update = update;
+        Body = body;
+    }
+}
+
+// for cond stmt
+public sealed class WhileStmt : AstStmt
+{
+    public readonly AstExpr Condition;
+    public readonly AstStmt Body;
+
+    public WhileStmt(int pos, AstExpr condition, AstStmt body) : base(pos)
+    {
+        Condition = condition;
+        Body = body;
+    }
+}
+
+// for i, v := range expr stmt
+public sealed class ForRangeStmt : AstStmt
+{
+    public readonly string IndexName;
+    public readonly string ValueName;
+    public readonly AstExpr Source;
+    public readonly AstStmt Body;
+    public readonly int IndexSlot;
+    public readonly int ValueSlot;
+
+    public ForRangeStmt(int pos, string indexName, string valueName, AstExpr source, AstStmt body, int indexSlot, int valueSlot) : base(pos)
+    {
+        IndexName = indexName;
+        ValueName = valueName;
+        Source = source;
+        Body = body;
+        IndexSlot = indexSlot;
+        ValueSlot = valueSlot;
+    }
+}
+
+public sealed class BreakStmt : AstStmt
+{
+    public BreakStmt(int pos) : base(pos) { }
+}
+
+public sealed class ContinueStmt : AstStmt
+{
+    public ContinueStmt(int pos) : base(pos) { }
+}
+
+public sealed class ReturnStmt : AstStmt
+{
+    public readonly AstExpr? Value;
+    public ReturnStmt(int pos, AstExpr? value) : base(pos) { Value = value; }
+}
@@ -0,0 +1,630 @@
+using System.Linq.Expressions;
+using System.Reflection;
+
+// Backend que compila el AST a codigo .NET con System.Linq.Expressions.
+// Cada funcion se vuelve un metodo dinamico Func<Frame, ValueWrapper> que el JIT optimiza como
+// cualquier otro metodo; break, continue y return son saltos en lugar de excepciones.
+public class AstCompiler
+{
+    private static readonly FieldInfo SlotsField = typeof(Frame).GetField(nameof(Frame.Slots))!;
+    private static readonly FieldInfo ParentField = typeof(Frame).GetField(nameof(Frame.Parent))!;
+    private static readonly FieldInfo ScalarsField = typeof(Frame).GetField(nameof(Frame.Scalars))!;
+    private static readonly ConstructorInfo SemanticErrorCtor = typeof(SemanticError).GetConstructor(new[] { typeof(string), typeof(int) })!;
+    private static readonly ConstructorInfo ReturnCtor = typeof(ReturnException).GetConstructor(new[] { typeof(ValueWrapper) })!;
+    private static readonly ConstructorInfo IntCtor = typeof(IntValue).GetConstructor(new[] { typeof(int) })!;
+    private static readonly ConstructorInfo FloatCtor = typeof(FloatValue).GetConstructor(new[] { typeof(decimal) })!;
+    private static readonly ConstructorInfo RuneCtor = typeof(RuneValue).GetConstructor(new[] { typeof(char) })!;
+    private static readonly MethodInfo EqualsMethod = typeof(object).GetMethod(nameof(object.Equals), new[] { typeof(object) })!;
+
+    private readonly ConstantExpression runtime;
+
+    private ParameterExpression frame = Expression.Parameter(typeof(Frame), "frame");
+    // Funcion que se esta compilando, null en el codigo global y en los campos de un struct
+    private FuncDecl? function;
+    private LabelTarget? returnLabel;
+    private LabelTarget? breakLabel;
+    private LabelTarget? continueLabel;
+
+    private AstCompiler(CompiledProgram program)
+    {
+        runtime = Expression.Constant(program);
+    }
+
+    public static CompiledProgram Compile(AstProgram ast)
+    {
+        var program = new CompiledProgram(ast.FrameSize);
+        var compiler = new AstCompiler(program);
+
+        var init = compiler.Lambda<Action<Frame>>(() => Void(ast.Declarations.Select(compiler.CompileStmt)), null);
+        var main = ast.Declarations.OfType<FuncDecl>().LastOrDefault(f => f.Name == "main");
+
+        program.Initialize(init, main);
+        return program;
+    }
+
+    // Compila un cuerpo en su propio delegado, con un frame y saltos nuevos
+    private T Lambda<T>(Func<Expression> body, LabelTarget? returns) where T : Delegate
+    {
+        var previousFrame = frame;
+        var previousReturn = returnLabel;
+        var previousBreak = breakLabel;
+        var previousContinue = continueLabel;
+        var previousFunction = function;
+
+        frame = Expression.Parameter(typeof(Frame), "frame");
+        function = null;
+        returnLabel = returns;
+        breakLabel = null;
+        continueLabel = null;
+
+        try
+        {
+            return Expression.Lambda<T>(body(), frame).Compile();
+        }
+        finally
+        {
+            frame = previousFrame;
+            returnLabel = previousReturn;
+            breakLabel = previousBreak;
+            continueLabel = previousContinue;
+            function = previousFunction;
+        }
+    }
+
+    private Func<Frame, ValueWrapper> CompileFunction(FuncDecl decl)
+    {
+        var returns = Expression.Label(typeof(ValueWrapper), "return");
+
+        return Lambda<Func<Frame, ValueWrapper>>(() =>
+        {
+            function = decl;
+
+            // Los argumentos llegan en Slots ya validados, los int, bool y rune pasan a Scalars
+            var parameters = Enumerable.Range(0, decl.Params.Length)
+                .Where(i => decl.ScalarType(i) != StaticType.Unknown)
+                .Select(i => StoreScalar(i, decl.Params[i], Slot(0, i), decl.Pos));
+
+            return Expression.Block(parameters
+                .Concat(decl.Body.Select(CompileStmt))
+                .Append(Expression.Label(returns, Constant(new VoidValue()))));
+        }, returns);
+    }
+
+    private static Expression Void(IEnumerable<Expression> body)
+    {
+        var list = body.ToList();
+        return list.Count == 0 ? Expression.Empty() : Expression.Block(typeof(void), list);
+    }
+
+    private static Expression Constant(ValueWrapper value)
+    {
+        return Expression.Constant(value, typeof(ValueWrapper));
+    }
+
+    private Expression Runtime(string method, params Expression[] arguments)
+    {
+        return Expression.Call(runtime, typeof(CompiledProgram).GetMethod(method)!, arguments);
+    }
+
+    private static Expression Static(Type type, string method, params Expression[] arguments)
+    {
+        return Expression.Call(type.GetMethod(method)!, arguments);
+    }
+
+
+    // Frames
+    private Expression Slot(int depth, int slot)
+    {
+        Expression target = frame;
+        for (; depth > 0; depth--)
+        {
+            target = Expression.Field(target, ParentField);
+        }
+
+        return Expression.ArrayAccess(Expression.Field(target, SlotsField), Expression.Constant(slot));
+    }
+
+    // Tipo del slot si vive sin caja en frame.Scalars: solo las variables locales de la funcion actual
+    private StaticType ScalarType(int depth, int slot)
+    {
+        return depth == 0 && function != null ? function.ScalarType(slot) : StaticType.Unknown;
+    }
+
+    private StaticType ScalarType(VarRef variable)
+    {
+        return ScalarType(variable.Depth, variable.Slot);
+    }
+
+    private Expression Scalar(int slot)
+    {
+        return Expression.ArrayAccess(Expression.Field(frame, ScalarsField), Expression.Constant(slot));
+    }
+
+    // La caja se crea solo cuando el valor pasa a codigo que espera un ValueWrapper
+    private Expression Box(StaticType type, int slot)
+    {
+        var value = Scalar(slot);
+
+        return type switch
+        {
+            StaticType.Int => Expression.New(IntCtor, Expression.Convert(value, typeof(int))),
+            StaticType.Bool => Boolean(Expression.NotEqual(value, Expression.Constant(0L))),
+            _ => Expression.New(RuneCtor, Expression.Convert(value, typeof(char)))
+        };
+    }
+
+    // Guarda un ValueWrapper en un slot sin caja, con error si no es del tipo del slot
+    private Expression StoreScalar(int slot, string name, Expression value, int pos)
+    {
+        var unbox = Static(typeof(CompiledProgram), nameof(CompiledProgram.Unbox), value, Expression.Constant(function!.ScalarType(slot)), Expression.Constant(name), Expression.Constant(pos));
+        return Expression.Assign(Scalar(slot), unbox);
+    }
+
+    private Expression Load(VarRef variable)
+    {
+        var scalar = ScalarType(variable);
+        if (scalar != StaticType.Unknown)
+        {
+            return Box(scalar, variable.Slot);
+        }
+
+        // Un slot vacio es una global que se usa antes de su declaracion
+        var error = Expression.New(SemanticErrorCtor, Expression.Constant("Variable " + variable.Name + " no encontrada"), Expression.Constant(variable.Pos));
+        return Expression.Coalesce(Slot(variable.Depth, variable.Slot), Expression.Throw(error, typeof(ValueWrapper)));
+    }
+
+    private Expression Store(VarRef variable, Expression value)
+    {
+        if (ScalarType(variable) != StaticType.Unknown)
+        {
+            var stored = Expression.Variable(typeof(ValueWrapper), "stored");
+            return Expression.Block(new[] { stored },
+                Expression.Assign(stored, value),
+                StoreScalar(variable.Slot, variable.Name, stored, variable.Pos),
+                stored);
+        }
+
+        return Expression.Assign(Slot(variable.Depth, variable.Slot), value);
+    }
+
+
+    // Sentencias
+    private Expression CompileStmt(AstStmt stmt)
+    {
+        switch (stmt)
+        {
+            case ExprStmt s:
+                return CompileEffect(s.Expr);
+            case VarDecl s:
+                return CompileVarDecl(s);
+            case Block s:
+                return Void(s.Body.Select(CompileStmt));
+            case IfStmt s:
+                return Expression.IfThenElse(Condition(s.Condition, s.Pos), CompileStmt(s.Then), s.Else == null ? Expression.Empty() : CompileStmt(s.Else));
+            case SwitchStmt s:
+                return CompileSwitch(s);
+            case ForStmt s:
+                return CompileFor(s);
+            case WhileStmt s:
+                return CompileWhile(s);
+            case ForRangeStmt s:
+                return CompileForRange(s);
+            case BreakStmt:
+                return breakLabel != null ? Expression.Break(breakLabel) : Expression.Throw(Expression.New(typeof(BreakException)));
+            case ContinueStmt:
+                return continueLabel != null ? Expression.Continue(continueLabel) : Expression.Throw(Expression.New(typeof(ContinueException)));
+            case ReturnStmt s:
+            {
+                var value = s.Value == null ? Constant(new VoidValue()) : CompileExpr(s.Value);
+                return returnLabel != null ? Expression.Return(returnLabel, value) : Expression.Throw(Expression.New(ReturnCtor, value));
+            }
+            case FuncDecl s:
+                return Expression.Assign(Slot(0, s.Slot), Runtime(nameof(CompiledProgram.DeclareFunction), Expression.Constant(s), frame, Expression.Constant(CompileFunction(s))));
+            case StructDecl s:
+            {
+                // Los valores iniciales de los campos se evaluan sobre el frame global
+                var inits = s.Fields
+                    .Select(field => field.Init == null ? null : Lambda<Func<Frame, ValueWrapper>>(() => CompileExpr(field.Init!), null))
+                    .ToArray();
+                return Expression.Assign(Slot(0, s.Slot), Runtime(nameof(CompiledProgram.DeclareStruct), Expression.Constant(s), Expression.Constant(inits)));
+            }
+            case SliceDecl s:
+                return Expression.Assign(Slot(0, s.Slot), Runtime(nameof(CompiledProgram.DeclareSlice), Expression.Constant(s)));
+            case MatrixDecl s:
+            {
+                var rows = s.Rows.Select(row => Expression.NewArrayInit(typeof(ValueWrapper), row.Select(CompileExpr)));
+                return Expression.Assign(Slot(0, s.Slot), Runtime(nameof(CompiledProgram.DeclareMatrix), Expression.Constant(s), Expression.NewArrayInit(typeof(ValueWrapper[]), rows)));
+            }
+            default:
+                throw new SemanticError("Error Semantico: sentencia no soportada", stmt.Pos);
+        }
+    }
+
+    private Expression Condition(AstExpr expr, int pos)
+    {
+        switch (expr)
+        {
+            case VarRef e when ScalarType(e) == StaticType.Bool:
+                return Expression.NotEqual(Scalar(e.Slot), Expression.Constant(0L));
+            case IntBinary e when e.Op.IsComparison():
+                return Compare(e.Op, CompileInt(e.Left), CompileInt(e.Right));
+            case FloatBinary e when e.Op.IsComparison():
+                return Compare(e.Op, CompileFloat(e.Left), CompileFloat(e.Right));
+        }
+
+        return Static(typeof(CompiledProgram), nameof(CompiledProgram.Truth), CompileExpr(expr), Expression.Constant(pos));
+    }
+
+    private Expression CompileVarDecl(VarDecl s)
+    {
+        var scalar = ScalarType(0, s.Slot);
+
+        // x := e o var x int = e con e int: no hace falta crear el IntValue
+        if (scalar == StaticType.Int && s.Init != null && IsInt(s.Init) && (s.Type == null || s.Type == "int"))
+        {
+            var value = Expression.Assign(Scalar(s.Slot), Expression.Convert(CompileInt(s.Init), typeof(long)));
+            return s.Type == null ? value : Expression.Block(Runtime(nameof(CompiledProgram.DeclareSymbol), Expression.Constant(s)), value);
+        }
+
+        var init = s.Init == null ? Expression.Constant(null, typeof(ValueWrapper)) : CompileExpr(s.Init);
+        var declared = Runtime(nameof(CompiledProgram.DeclareVariable), Expression.Constant(s), init);
+
+        return scalar != StaticType.Unknown ? StoreScalar(s.Slot, s.Name, declared, s.Pos) : Expression.Assign(Slot(0, s.Slot), declared);
+    }
+
+    // Expresion usada como sentencia, su valor se descarta: las asignaciones a slots int
+    // sin caja se hacen con int de .NET y no crean ningun ValueWrapper
+    private Expression CompileEffect(AstExpr expr)
+    {
+        var pos = Expression.Constant(expr.Pos);
+
+        switch (expr)
+        {
+            case Assign { Target: VarRef target } e when ScalarType(target) == StaticType.Int:
+            {
+                var value = IsInt(e.Value) ? CompileInt(e.Value)
+                    : Expression.Convert(Static(typeof(CompiledProgram), nameof(CompiledProgram.Unbox), CompileExpr(e.Value), Expression.Constant(StaticType.Int), Expression.Constant(target.Name), pos), typeof(int));
+                return Expression.Assign(Scalar(target.Slot), Expression.Convert(value, typeof(long)));
+            }
+            case Assign { Target: VarRef target } e when ScalarType(target) != StaticType.Unknown:
+                return StoreScalar(target.Slot, target.Name, CompileExpr(e.Value), e.Pos);
+            case CompoundAssign e when ScalarType(e.Target) == StaticType.Int && IsInt(e.Value) && (e.Op == BinaryOp.Add || e.Op == BinaryOp.Sub):
+            {
+                var current = Expression.Convert(Scalar(e.Target.Slot), typeof(int));
+                var value = e.Op == BinaryOp.Add ? Expression.Add(current, CompileInt(e.Value)) : Expression.Subtract(current, CompileInt(e.Value));
+                return Expression.Assign(Scalar(e.Target.Slot), Expression.Convert(value, typeof(long)));
+            }
+            case IncDec e when ScalarType(e.Target) == StaticType.Int:
+            {
+                var value = Expression.Add(Expression.Convert(Scalar(e.Target.Slot), typeof(int)), Expression.Constant(e.Delta));
+                return Expression.Assign(Scalar(e.Target.Slot), Expression.Convert(value, typeof(long)));
+            }
+            default:
+                return CompileExpr(expr);
+        }
+    }
+
+    // Expresiones que CompileInt compila sin pasar por un ValueWrapper
+    private bool IsInt(AstExpr expr)
+    {
+        return expr is IntLiteral
+            || expr is IntBinary binary && !binary.Op.IsComparison()
+            || expr is VarRef variable && ScalarType(variable) == StaticType.Int;
+    }
+
+    private Expression CompileSwitch(SwitchStmt s)
+    {
+        var subject = Expression.Variable(typeof(ValueWrapper), "subject");
+        var end = Expression.Label("switch_end");
+
+        var previousBreak = breakLabel;
+        breakLabel = end;
+
+        try
+        {
+            Expression dispatch = s.Default == null ? Expression.Empty() : Void(s.Default.Select(CompileStmt));
+
+            // Case literales: la tabla da la posicion del case y el switch de .NET salta directo a el
+            if (s.Table != null)
+            {
+                var cases = s.Cases.Select((c, i) => Expression.SwitchCase(Void(c.Body.Select(CompileStmt)), Expression.Constant(i))).ToArray();
+
+                return Expression.Block(typeof(void),
+                    Expression.Switch(typeof(void),
+                        Expression.Call(Expression.Constant(s.Table), nameof(JumpTable.Find), null, CompileExpr(s.Subject)),
+                        dispatch, null, cases),
+                    Expression.Label(end));
+            }
+
+            // Cadena de if/else: gana el primer caso igual al sujeto
+            for (int i = s.Cases.Length - 1; i >= 0; i--)
+            {
+                var c = s.Cases[i];
+                dispatch = Expression.IfThenElse(Expression.Call(subject, EqualsMethod, CompileExpr(c.Value)), Void(c.Body.Select(CompileStmt)), dispatch);
+            }
+
+            return Expression.Block(typeof(void), new[] { subject },
+                Expression.Assign(subject, CompileExpr(s.Subject)),
+                dispatch,
+                Expression.Label(end));
+        }
+        finally
+        {
+            breakLabel = previousBreak;
+        }
+    }
+
+    private Expression CompileFor(ForStmt s)
+    {
+        var init = CompileStmt(s.Init);
+
+        return Expression.Block(typeof(void), init, Loop(s.Pos, (brk, cont) => Expression.Block(typeof(void),
+            Expression.IfThen(Expression.Not(Condition(s.Condition, s.Pos)), Expression.Break(brk)),
+            CompileStmt(s.Body),
+            Expression.Label(cont),
+            CompileEffect(s.Update))));
+    }
+
+    private Expression CompileWhile(WhileStmt s)
+    {
+        return Loop(s.Pos, (brk, cont) => Expression.Block(typeof(void),
+            Expression.IfThen(Expression.Not(Condition(s.Condition, s.Pos)), Expression.Break(brk)),
+            CompileStmt(s.Body),
+            Expression.Label(cont)));
+    }
+
+    private Expression CompileForRange(ForRangeStmt s)
+    {
+        var items = Expression.Variable(typeof(SliceData), "items");
+        var i = Expression.Variable(typeof(int), "i");
+
+        var loop = Loop(s.Pos, (brk, cont) => Expression.Block(typeof(void),
+            Expression.IfThen(Expression.GreaterThanOrEqual(i, Expression.Property(items, nameof(SliceData.Count))), Expression.Break(brk)),
+            StoreRangeIndex(s, i),
+            StoreRangeValue(s, items, i),
+            CompileStmt(s.Body),
+            Expression.Label(cont),
+            Expression.PreIncrementAssign(i)));
+
+        return Expression.Block(typeof(void), new[] { items, i },
+            Expression.Assign(items, Static(typeof(CompiledProgram), nameof(CompiledProgram.RangeSource), CompileExpr(s.Source), Expression.Constant(s.Pos))),
+            Expression.Assign(i, Expression.Constant(0)),
+            loop);
+    }
+
+    private Expression StoreRangeIndex(ForRangeStmt s, ParameterExpression i)
+    {
+        return ScalarType(0, s.IndexSlot) == StaticType.Int
+            ? Expression.Assign(Scalar(s.IndexSlot), Expression.Convert(i, typeof(long)))
+            : Expression.Assign(Slot(0, s.IndexSlot), Expression.New(IntCtor, i));
+    }
+
+    private Expression StoreRangeValue(ForRangeStmt s, ParameterExpression items, ParameterExpression i)
+    {
+        var pos = Expression.Constant(s.Pos);
+
+        switch (ScalarType(0, s.ValueSlot))
+        {
+            case StaticType.Int:
+                return Expression.Assign(Scalar(s.ValueSlot), Expression.Convert(
+                    Static(typeof(CompiledProgram), nameof(CompiledProgram.IntItem), items, i, Expression.Constant(s.ValueName), pos), typeof(long)));
+            case StaticType.Unknown:
+                return Expression.Assign(Slot(0, s.ValueSlot), Expression.Call(items, nameof(SliceData.Get), null, i, pos));
+            default:
+                return StoreScalar(s.ValueSlot, s.ValueName, Expression.Call(items, nameof(SliceData.Get), null, i, pos), s.Pos);
+        }
+    }
+
+    // El cuerpo recibe las etiquetas de break y continue, continue debe quedar antes del update.
+    // Cada vuelta empieza con un paso del sandbox
+    private Expression Loop(int pos, Func<LabelTarget, LabelTarget, Expression> body)
+    {
+        var brk = Expression.Label("break");
+        var cont = Expression.Label("continue");
+
+        var previousBreak = breakLabel;
+        var previousContinue = continueLabel;
+        breakLabel = brk;
+        continueLabel = cont;
+
+        try
+        {
+            return Expression.Loop(Expression.Block(typeof(void), Runtime(nameof(CompiledProgram.Step), Expression.Constant(pos)), body(brk, cont)), brk);
+        }
+        finally
+        {
+            breakLabel = previousBreak;
+            continueLabel = previousContinue;
+        }
+    }
+
+
+    // Expresiones, siempre de tipo ValueWrapper
+    private Expression CompileExpr(AstExpr expr)
+    {
+        var compiled = CompileValue(expr);
+        return compiled.Type == typeof(ValueWrapper) ? compiled : Expression.Convert(compiled, typeof(ValueWrapper));
+    }
+
+    private Expression CompileValue(AstExpr expr)
+    {
+        var pos = Expression.Constant(expr.Pos);
+
+        switch (expr)
+        {
+            case IntLiteral e:
+                return Constant(new IntValue(e.Value));
+            case FloatLiteral e:
+                return Constant(new FloatValue(e.Value));
+            case StringLiteral e:
+                return Constant(new StringValue(e.Value));
+            case BoolLiteral e:
+                return Constant(new BoolValue(e.Value));
+            case RuneLiteral e:
+                return Constant(new RuneValue(e.Value));
+            case NilLiteral:
+                return Constant(new VoidValue());
+            case VarRef e:
+                return Load(e);
+            case BuiltinRef e:
+                return Constant(new BuiltinValue(e.Name));
+            case Binary e when e.Op == BinaryOp.And || e.Op == BinaryOp.Or:
+            {
+                // && y || no evaluan el lado derecho si no hace falta
+                var left = Expression.Variable(typeof(BoolValue), "left");
+                var leftValue = Expression.Property(left, nameof(BoolValue.Value));
+
+                return Expression.Block(new[] { left },
+                    Expression.Assign(left, Static(typeof(CompiledProgram), nameof(CompiledProgram.RequireBool), CompileExpr(e.Left), pos)),
+                    Expression.Condition(e.Op == BinaryOp.And ? Expression.Not(leftValue) : leftValue,
+                        left,
+                        Static(typeof(CompiledProgram), nameof(CompiledProgram.RequireBool), CompileExpr(e.Right), pos)));
+            }
+            case IntBinary e when e.Op.IsComparison():
+                return Boolean(Compare(e.Op, CompileInt(e.Left), CompileInt(e.Right)));
+            case IntBinary e:
+                return Expression.New(IntCtor, CompileInt(e));
+            case FloatBinary e when e.Op.IsComparison():
+                return Boolean(Compare(e.Op, CompileFloat(e.Left), CompileFloat(e.Right)));
+            case FloatBinary e:
+                return Expression.New(FloatCtor, CompileFloat(e));
+            case IntToFloat e:
+                return Expression.New(FloatCtor, CompileFloat(e));
+            case Binary e:
+                return Static(typeof(AstInterpreter), nameof(AstInterpreter.BinaryOperation), Expression.Constant(e.Op), CompileExpr(e.Left), CompileExpr(e.Right), pos);
+            case Negate e:
+                return Static(typeof(CompiledProgram), nameof(CompiledProgram.Negate), CompileExpr(e.Operand), pos);
+            case Not e:
+                return Static(typeof(CompiledProgram), nameof(CompiledProgram.Not), CompileExpr(e.Operand), pos);
+            case Assign e:
+                return CompileAssign(e);
+            case CompoundAssign e:
+            {
+                var value = Expression.Variable(typeof(ValueWrapper), "value");
+                return Expression.Block(new[] { value },
+                    Expression.Assign(value, CompileExpr(e.Value)),
+                    Store(e.Target, Static(typeof(CompiledProgram), nameof(CompiledProgram.Compound), Expression.Constant(e.Op), Load(e.Target), value, pos)));
+            }
+            case IncDec e:
+                return Store(e.Target, Static(typeof(CompiledProgram), nameof(CompiledProgram.IncDec), Load(e.Target), Expression.Constant(e.Delta), pos));
+            case SliceLiteral e:
+                return Static(typeof(CompiledProgram), nameof(CompiledProgram.NewSlice), Expression.Constant(e.ElementType),
+                    Expression.NewArrayInit(typeof(ValueWrapper), e.Elements.Select(CompileExpr)), pos);
+            case IndexExpr e:
+                return Static(typeof(CompiledProgram), nameof(CompiledProgram.Index), CompileExpr(e.Index), Load(e.Array), pos);
+            case MatrixIndexExpr e:
+                return Static(typeof(CompiledProgram), nameof(CompiledProgram.MatrixIndex), CompileExpr(e.Row), CompileExpr(e.Column), Load(e.Matrix), pos);
+            case StructLiteral e:
+            {
+                var type = Load(e.Type);
+                return Runtime(nameof(CompiledProgram.NewStruct), type, Expression.Constant(e.Cache),
+                    Expression.NewArrayInit(typeof(ValueWrapper), e.Values.Select(CompileExpr)), pos);
+            }
+            case Call e:
+                return Runtime(nameof(CompiledProgram.Call), CompileExpr(e.Callee), Expression.NewArrayInit(typeof(ValueWrapper), e.Args.Select(CompileExpr)), pos);
+            case FieldGet e:
+                return Static(typeof(AstInterpreter), nameof(AstInterpreter.GetField), CompileExpr(e.Target), Expression.Constant(e.Cache), pos);
+            default:
+                throw new SemanticError("Error Semantico: expresion no soportada", expr.Pos);
+        }
+    }
+
+    // Expresiones con tipo estatico (TypeChecker): se compilan a int, decimal y bool de .NET
+    private Expression CompileInt(AstExpr expr)
+    {
+        switch (expr)
+        {
+            case IntLiteral e:
+                return Expression.Constant(e.Value);
+            case VarRef e when ScalarType(e) == StaticType.Int:
+                return Expression.Convert(Scalar(e.Slot), typeof(int));
+            case IntBinary e when !e.Op.IsComparison():
+            {
+                var left = CompileInt(e.Left);
+                var right = CompileInt(e.Right);
+
+                return e.Op switch
+                {
+                    BinaryOp.Add => Expression.Add(left, right),
+                    BinaryOp.Sub => Expression.Subtract(left, right),
+                    BinaryOp.Mul => Expression.Multiply(left, right),
+                    // Division y modulo revisan el cero
+                    _ => Static(typeof(AstInterpreter), nameof(AstInterpreter.IntArithmetic), Expression.Constant(e.Op), left, right, Expression.Constant(e.Pos))
+                };
+            }
+            // Lectura directa del int[] del slice o de la matriz
+            case IndexExpr e:
+                return Static(typeof(AstInterpreter), nameof(AstInterpreter.IntAt), Load(e.Array), CompileInt(e.Index), Expression.Constant(e.Pos));
+            case MatrixIndexExpr e:
+                return Static(typeof(AstInterpreter), nameof(AstInterpreter.IntMatrixAt), Load(e.Matrix), CompileInt(e.Row), CompileInt(e.Column), Expression.Constant(e.Pos));
+            default:
+                return Static(typeof(AstInterpreter), nameof(AstInterpreter.AsInt), CompileExpr(expr), Expression.Constant(expr.Pos));
+        }
+    }
+
+    private Expression CompileFloat(AstExpr expr)
+    {
+        switch (expr)
+        {
+            case FloatLiteral e:
+                return Expression.Constant(e.Value);
+            case IntToFloat e:
+                return Expression.Convert(CompileInt(e.Operand), typeof(decimal));
+            case FloatBinary e when !e.Op.IsComparison():
+            {
+                var left = CompileFloat(e.Left);
+                var right = CompileFloat(e.Right);
+
+                return e.Op switch
+                {
+                    BinaryOp.Add => Expression.Add(left, right),
+                    BinaryOp.Sub => Expression.Subtract(left, right),
+                    BinaryOp.Mul => Expression.Multiply(left, right),
+                    _ => Static(typeof(AstInterpreter), nameof(AstInterpreter.FloatArithmetic), Expression.Constant(e.Op), left, right, Expression.Constant(e.Pos))
+                };
+            }
+            case IndexExpr e:
+                return Static(typeof(AstInterpreter), nameof(AstInterpreter.FloatAt), Load(e.Array), CompileInt(e.Index), Expression.Constant(e.Pos));
+            case MatrixIndexExpr e:
+                return Static(typeof(AstInterpreter), nameof(AstInterpreter.FloatMatrixAt), Load(e.Matrix), CompileInt(e.Row), CompileInt(e.Column), Expression.Constant(e.Pos));
+            default:
+                return Static(typeof(AstInterpreter), nameof(AstInterpreter.AsFloat), CompileExpr(expr), Expression.Constant(expr.Pos));
+        }
+    }
+
+    private static Expression Compare(BinaryOp op, Expression left, Expression right)
+    {
+        return op switch
+        {
+            BinaryOp.Lt => Expression.LessThan(left, right),
+            BinaryOp.Le => Expression.LessThanOrEqual(left, right),
+            BinaryOp.Gt => Expression.GreaterThan(left, right),
+            BinaryOp.Ge => Expression.GreaterThanOrEqual(left, right),
+            BinaryOp.Eq => Expression.Equal(left, right),
+            _ => Expression.NotEqual(left, right)
+        };
+    }
+
+    // Las comparaciones reutilizan las dos instancias de BoolValue
+    private static Expression Boolean(Expression condition)
+    {
+        return Expression.Condition(condition, Constant(AstInterpreter.Boolean(true)), Constant(AstInterpreter.Boolean(false)));
+    }
+
+    private Expression CompileAssign(Assign e)
+    {
+        var value = Expression.Variable(typeof(ValueWrapper), "value");
+        var pos = Expression.Constant(e.Pos);
+
+        Expression store = e.Target switch
+        {
+            VarRef target => Store(target, Static(typeof(CompiledProgram), nameof(CompiledProgram.CheckAssign), Load(target), value, Expression.Constant(target.Name), pos)),
+            IndexExpr target => Static(typeof(CompiledProgram), nameof(CompiledProgram.SetIndex), value, Load(target.Array), CompileExpr(target.Index), pos),
+            MatrixIndexExpr target => Static(typeof(CompiledProgram), nameof(CompiledProgram.SetMatrix), value, Load(target.Matrix), CompileExpr(target.Row), CompileExpr(target.Column), pos),
+            FieldGet target => Static(typeof(CompiledProgram), nameof(CompiledProgram.SetField), value, CompileExpr(target.Target), Expression.Constant(target.Cache), pos),
+            _ => throw new SemanticError("Error Semantico: Asignacion Invalida", e.Pos)
+        };
+
+        return Expression.Block(new[] { value }, Expression.Assign(value, CompileExpr(e.Value)), store);
+    }
+}
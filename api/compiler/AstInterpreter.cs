@@ -0,0 +1,1079 @@
+using Proyecto1_OLC2;
+
+// Interprete que evalua el AST compacto (AstLowering) en lugar de los contextos de ANTLR.
+// Las variables viven en frames y se acceden por (profundidad, slot), sin buscar por nombre.
+public class AstInterpreter
+{
+    public SymbolTable symbolTable = new SymbolTable();
+    public ValueWrapper defaultVoid = new VoidValue();
+
+    private OutputSink output = new StringOutputSink();
+    private Frame globals = new Frame(0, null);
+    private Frame frame;
+
+    public string Output => output.Text;
+
+    // fmt.Println escribe aqui, por defecto se guarda todo en memoria
+    public OutputSink Sink
+    {
+        get => output;
+        set => output = value;
+    }
+
+    // Limites del sandbox, se revisan en cada vuelta de ciclo y en cada llamada
+    public ExecutionBudget Budget { get; set; } = ExecutionBudget.Unlimited();
+
+    public AstInterpreter()
+    {
+        frame = globals;
+    }
+
+    public void Run(AstProgram program)
+    {
+        globals = new Frame(program.FrameSize, null);
+        frame = globals;
+
+        var previous = Budget.Activate();
+        try
+        {
+            FuncDecl? main = null;
+            foreach (var dcl in program.Declarations)
+            {
+                Execute(dcl);
+
+                if (dcl is FuncDecl func && func.Name == "main")
+                {
+                    main = func;
+                }
+            }
+
+            ExecuteMain(main);
+        }
+        finally
+        {
+            ExecutionBudget.Restore(previous);
+        }
+    }
+
+    private void ExecuteMain(FuncDecl? main)
+    {
+        if (main == null || globals.Slots[main.Slot] is not ClosureValue mainFunc)
+        {
+            throw new SemanticError("Error: No se encontró la función 'main'.");
+        }
+
+        Invoke(mainFunc, new List<ValueWrapper>(), main.Pos);
+    }
+
+
+    // Frames
+    private ValueWrapper Load(VarRef variable)
+    {
+        Frame target = frame;
+        for (int depth = variable.Depth; depth > 0; depth--)
+        {
+            target = target.Parent!;
+        }
+
+        // Un slot vacio es una global que se usa antes de su declaracion
+        return target.Slots[variable.Slot] ?? throw new SemanticError("Variable " + variable.Name + " no encontrada", variable.Pos);
+    }
+
+    private void Store(VarRef variable, ValueWrapper value)
+    {
+        Frame target = frame;
+        for (int depth = variable.Depth; depth > 0; depth--)
+        {
+            target = target.Parent!;
+        }
+
+        target.Slots[variable.Slot] = value;
+    }
+
+    private void Declare(int slot, ValueWrapper value)
+    {
+        frame.Slots[slot] = value;
+    }
+
+    private void AddSymbol(string id, string tipo, string tipoDato, string ambito, int pos)
+    {
+        symbolTable.AddSymbol(new Symbol(id, tipo, tipoDato, ambito, SourcePos.Line(pos), SourcePos.Column(pos)));
+    }
+
+
+    // Sentencias
+    public void Execute(AstStmt stmt)
+    {
+        switch (stmt)
+        {
+            case ExprStmt s:
+                Evaluate(s.Expr);
+                break;
+            case VarDecl s:
+                ExecuteVarDecl(s);
+                break;
+            case Block s:
+                foreach (var inner in s.Body)
+                {
+                    Execute(inner);
+                }
+                break;
+            case IfStmt s:
+                if (Condition(s.Condition, s.Pos))
+                {
+                    Execute(s.Then);
+                }
+                else if (s.Else != null)
+                {
+                    Execute(s.Else);
+                }
+                break;
+            case SwitchStmt s:
+                ExecuteSwitch(s);
+                break;
+            case ForStmt s:
+                ExecuteFor(s);
+                break;
+            case WhileStmt s:
+                ExecuteWhile(s);
+                break;
+            case ForRangeStmt s:
+                ExecuteForRange(s);
+                break;
+            case BreakStmt:
+                throw new BreakException();
+            case ContinueStmt:
+                throw new ContinueException();
+            case ReturnStmt s:
+                throw new ReturnException(s.Value == null ? defaultVoid : Evaluate(s.Value));
+            case FuncDecl s:
+                if (s.ReturnType != null)
+                {
+                    AddSymbol(s.Name, "Funcion", s.ReturnType, "Global", s.Pos);
+                }
+                AddSymbol(s.Name, "Funcion", "func", "Global", s.Pos);
+                Declare(s.Slot, new ClosureValue(s, frame));
+                break;
+            case StructDecl s:
+                AddSymbol(s.Name, "Struct", s.Name, "Global", s.Pos);
+                Declare(s.Slot, new StructTypeValue(s));
+                break;
+            case SliceDecl s:
+                AddSymbol(s.Name, "Variable", "Slice", "Global", s.Pos);
+                Declare(s.Slot, new SliceValue(SliceData.Create(s.ElementType, 0)));
+                break;
+            case MatrixDecl s:
+                ExecuteMatrixDecl(s);
+                break;
+            default:
+                throw new SemanticError("Error Semantico: sentencia no soportada", stmt.Pos);
+        }
+    }
+
+    private void ExecuteVarDecl(VarDecl s)
+    {
+        if (s.Init is StructLiteral literal)
+        {
+            ValueWrapper instancia = Evaluate(literal);
+            AddSymbol(s.Name, "Struct", literal.StructName, "Global", s.Pos);
+            Declare(s.Slot, instancia);
+        }
+        else if (s.Init != null && s.Type != null)
+        {
+            ValueWrapper value = Evaluate(s.Init);
+
+            if (!MatchesType(s.Type, value))
+            {
+                throw new SemanticError($"Error: el tipo de valor {value.GetType().Name} no coicide a una variable de tipo {s.Type}", s.Pos);
+            }
+
+            AddSymbol(s.Name, "Variable", s.Type, "Global", s.Pos);
+            Declare(s.Slot, value);
+        }
+        else if (s.Type != null)
+        {
+            AddSymbol(s.Name, "Variable", s.Type, "Global", s.Pos);
+            Declare(s.Slot, DefaultValue(s.Type, s.Pos));
+        }
+        else
+        {
+            ValueWrapper value = Evaluate(s.Init!);
+
+            if (value is SliceValue slice)
+            {
+                AddSymbol(s.Name, "Slice", slice.Data.ElementType, "main", s.Pos);
+            }
+
+            Declare(s.Slot, value);
+        }
+    }
+
+    private void ExecuteMatrixDecl(MatrixDecl s)
+    {
+        var rows = new ValueWrapper[s.Rows.Length][];
+
+        for (int i = 0; i < rows.Length; i++)
+        {
+            rows[i] = new ValueWrapper[s.Rows[i].Length];
+            for (int j = 0; j < rows[i].Length; j++)
+            {
+                rows[i][j] = Evaluate(s.Rows[i][j]);
+            }
+        }
+
+        AddSymbol(s.Name, "Variable", "Matriz", "Global", s.Pos);
+        Declare(s.Slot, NewMatrix(s.ElementType, rows, s.Pos));
+    }
+
+    private void ExecuteSwitch(SwitchStmt s)
+    {
+        ValueWrapper subject = Evaluate(s.Subject);
+        AstStmt[]? body = s.Default;
+
+        if (s.Table != null)
+        {
+            int index = s.Table.Find(subject);
+            if (index >= 0)
+            {
+                body = s.Cases[index].Body;
+            }
+        }
+        else
+        {
+            foreach (var c in s.Cases)
+            {
+                if (subject.Equals(Evaluate(c.Value)))
+                {
+                    body = c.Body;
+                    break;
+                }
+            }
+        }
+
+        if (body == null)
+        {
+            return;
+        }
+
+        try
+        {
+            foreach (var stmt in body)
+            {
+                Execute(stmt);
+            }
+        }
+        catch (BreakException)
+        {
+        }
+    }
+
+    private void ExecuteFor(ForStmt s)
+    {
+        Execute(s.Init);
+
+        while (Condition(s.Condition, s.Pos))
+        {
+            Budget.Step(s.Pos);
+
+            try
+            {
+                Execute(s.Body);
+            }
+            catch (BreakException)
+            {
+                break;
+            }
+            catch (ContinueException)
+            {
+            }
+
+            Evaluate(s.Update);
+        }
+    }
+
+    private void ExecuteWhile(WhileStmt s)
+    {
+        while (Condition(s.Condition, s.Pos))
+        {
+            Budget.Step(s.Pos);
+
+            try
+            {
+                Execute(s.Body);
+            }
+            catch (BreakException)
+            {
+                break;
+            }
+            catch (ContinueException)
+            {
+            }
+        }
+    }
+
+    private void ExecuteForRange(ForRangeStmt s)
+    {
+        SliceData items = RangeSource(Evaluate(s.Source), s.Pos);
+
+        for (int i = 0; i < items.Count; i++)
+        {
+            Budget.Step(s.Pos);
+            frame.Slots[s.IndexSlot] = new IntValue(i);
+            frame.Slots[s.ValueSlot] = items.Get(i, s.Pos);
+
+            try
+            {
+                Execute(s.Body);
+            }
+            catch (BreakException)
+            {
+                break;
+            }
+            catch (ContinueException)
+            {
+            }
+        }
+    }
+
+    private bool Condition(AstExpr expr, int pos)
+    {
+        switch (expr)
+        {
+            case IntBinary e when e.Op.IsComparison():
+                return IntComparison(e.Op, EvaluateInt(e.Left), EvaluateInt(e.Right));
+            case FloatBinary e when e.Op.IsComparison():
+                return FloatComparison(e.Op, EvaluateFloat(e.Left), EvaluateFloat(e.Right));
+        }
+
+        if (Evaluate(expr) is not BoolValue condition)
+        {
+            throw new SemanticError("Error Semantico: Condicion invalida", pos);
+        }
+
+        return condition.Value;
+    }
+
+
+    // Expresiones
+    public ValueWrapper Evaluate(AstExpr expr)
+    {
+        switch (expr)
+        {
+            case IntLiteral e:
+                return new IntValue(e.Value);
+            case FloatLiteral e:
+                return new FloatValue(e.Value);
+            case StringLiteral e:
+                return new StringValue(e.Value);
+            case BoolLiteral e:
+                return new BoolValue(e.Value);
+            case RuneLiteral e:
+                return new RuneValue(e.Value);
+            case NilLiteral:
+                return new VoidValue();
+            case VarRef e:
+                return Load(e);
+            case BuiltinRef e:
+                return new BuiltinValue(e.Name);
+            case Binary e:
+                return EvaluateBinary(e);
+            case IntBinary e:
+                return e.Op.IsComparison() ? Boolean(IntComparison(e.Op, EvaluateInt(e.Left), EvaluateInt(e.Right))) : new IntValue(EvaluateInt(e));
+            case FloatBinary e:
+                return e.Op.IsComparison() ? Boolean(FloatComparison(e.Op, EvaluateFloat(e.Left), EvaluateFloat(e.Right))) : new FloatValue(EvaluateFloat(e));
+            case IntToFloat e:
+                return new FloatValue(EvaluateInt(e.Operand));
+            case Negate e:
+                return Evaluate(e.Operand) switch
+                {
+                    IntValue i => new IntValue(-i.Value),
+                    FloatValue f => new FloatValue(-f.Value),
+                    _ => throw new SemanticError("Error Semantico: Operacion invalida", e.Pos)
+                };
+            case Not e:
+                if (Evaluate(e.Operand) is not BoolValue b)
+                {
+                    throw new SemanticError("Error Semantico: Operacion Invalida", e.Pos);
+                }
+                return new BoolValue(!b.Value);
+            case Assign e:
+                return EvaluateAssign(e);
+            case CompoundAssign e:
+                return EvaluateCompoundAssign(e);
+            case IncDec e:
+                return EvaluateIncDec(e);
+            case SliceLiteral e:
+                return EvaluateSliceLiteral(e);
+            case IndexExpr e:
+                return EvaluateIndex(e);
+            case MatrixIndexExpr e:
+                return EvaluateMatrixIndex(e);
+            case StructLiteral e:
+                return EvaluateStructLiteral(e);
+            case Call e:
+                return EvaluateCall(e);
+            case FieldGet e:
+                return GetField(Evaluate(e.Target), e.Cache, e.Pos);
+            default:
+                throw new SemanticError("Error Semantico: expresion no soportada", expr.Pos);
+        }
+    }
+
+    // Expresiones con tipo estatico int o float64 (TypeChecker), los intermedios no se empaquetan
+    private int EvaluateInt(AstExpr expr)
+    {
+        return expr switch
+        {
+            IntLiteral e => e.Value,
+            IntBinary e when !e.Op.IsComparison() => IntArithmetic(e.Op, EvaluateInt(e.Left), EvaluateInt(e.Right), e.Pos),
+            IndexExpr e => IntAt(Load(e.Array), EvaluateInt(e.Index), e.Pos),
+            MatrixIndexExpr e => IntMatrixAt(Load(e.Matrix), EvaluateInt(e.Row), EvaluateInt(e.Column), e.Pos),
+            _ => AsInt(Evaluate(expr), expr.Pos)
+        };
+    }
+
+    private decimal EvaluateFloat(AstExpr expr)
+    {
+        return expr switch
+        {
+            FloatLiteral e => e.Value,
+            IntToFloat e => EvaluateInt(e.Operand),
+            FloatBinary e when !e.Op.IsComparison() => FloatArithmetic(e.Op, EvaluateFloat(e.Left), EvaluateFloat(e.Right), e.Pos),
+            IndexExpr e => FloatAt(Load(e.Array), EvaluateInt(e.Index), e.Pos),
+            MatrixIndexExpr e => FloatMatrixAt(Load(e.Matrix), EvaluateInt(e.Row), EvaluateInt(e.Column), e.Pos),
+            _ => AsFloat(Evaluate(expr), expr.Pos)
+        };
+    }
+
+    private static readonly BoolValue True = new BoolValue(true);
+    private static readonly BoolValue False = new BoolValue(false);
+
+    public static BoolValue Boolean(bool value)
+    {
+        return value ? True : False;
+    }
+
+    public static int IntArithmetic(BinaryOp op, int left, int right, int pos)
+    {
+        if ((op == BinaryOp.Div || op == BinaryOp.Mod) && right == 0)
+        {
+            throw new SemanticError("Error Semantico: División o módulo entre cero", pos);
+        }
+
+        return op switch
+        {
+            BinaryOp.Add => left + right,
+            BinaryOp.Sub => left - right,
+            BinaryOp.Mul => left * right,
+            BinaryOp.Div => left / right,
+            _ => left % right
+        };
+    }
+
+    public static decimal FloatArithmetic(BinaryOp op, decimal left, decimal right, int pos)
+    {
+        if (op == BinaryOp.Div && right == 0)
+        {
+            throw new SemanticError("Error Semantico: División o módulo entre cero", pos);
+        }
+
+        return op switch
+        {
+            BinaryOp.Add => left + right,
+            BinaryOp.Sub => left - right,
+            BinaryOp.Mul => left * right,
+            _ => left / right
+        };
+    }
+
+    public static bool IntComparison(BinaryOp op, int left, int right)
+    {
+        return op switch
+        {
+            BinaryOp.Lt => left < right,
+            BinaryOp.Le => left <= right,
+            BinaryOp.Gt => left > right,
+            BinaryOp.Ge => left >= right,
+            BinaryOp.Eq => left == right,
+            _ => left != right
+        };
+    }
+
+    public static bool FloatComparison(BinaryOp op, decimal left, decimal right)
+    {
+        return op switch
+        {
+            BinaryOp.Lt => left < right,
+            BinaryOp.Le => left <= right,
+            BinaryOp.Gt => left > right,
+            BinaryOp.Ge => left >= right,
+            BinaryOp.Eq => left == right,
+            _ => left != right
+        };
+    }
+
+    private ValueWrapper EvaluateBinary(Binary e)
+    {
+        // && y || no evaluan el lado derecho si no hace falta
+        if (e.Op == BinaryOp.And || e.Op == BinaryOp.Or)
+        {
+            if (Evaluate(e.Left) is not BoolValue left)
+            {
+                throw new SemanticError("Error Semantico: Operacion Invalida", e.Pos);
+            }
+
+            if (e.Op == BinaryOp.And ? !left.Value : left.Value)
+            {
+                return left;
+            }
+
+            if (Evaluate(e.Right) is not BoolValue right)
+            {
+                throw new SemanticError("Error Semantico: Operacion Invalida", e.Pos);
+            }
+
+            return right;
+        }
+
+        return BinaryOperation(e.Op, Evaluate(e.Left), Evaluate(e.Right), e.Pos);
+    }
+
+    // Semantica de los operadores binarios (int, float64, string, bool, rune)
+    public static ValueWrapper BinaryOperation(BinaryOp op, ValueWrapper left, ValueWrapper right, int pos)
+    {
+        if ((op == BinaryOp.Div || op == BinaryOp.Mod) && (right is IntValue { Value: 0 } || right is FloatValue { Value: 0 }))
+        {
+            throw new SemanticError("Error Semantico: División o módulo entre cero", pos);
+        }
+
+        return (left, right, op) switch
+        {
+            (IntValue l, IntValue r, BinaryOp.Add) => new IntValue(l.Value + r.Value),
+            (IntValue l, FloatValue r, BinaryOp.Add) => new FloatValue(l.Value + r.Value),
+            (FloatValue l, FloatValue r, BinaryOp.Add) => new FloatValue(l.Value + r.Value),
+            (FloatValue l, IntValue r, BinaryOp.Add) => new FloatValue(l.Value + r.Value),
+            (StringValue l, StringValue r, BinaryOp.Add) => StringValue.Concat(l, r, pos),
+
+            (IntValue l, IntValue r, BinaryOp.Sub) => new IntValue(l.Value - r.Value),
+            (IntValue l, FloatValue r, BinaryOp.Sub) => new FloatValue(l.Value - r.Value),
+            (FloatValue l, FloatValue r, BinaryOp.Sub) => new FloatValue(l.Value - r.Value),
+            (FloatValue l, IntValue r, BinaryOp.Sub) => new FloatValue(l.Value - r.Value),
+
+            (IntValue l, IntValue r, BinaryOp.Mul) => new IntValue(l.Value * r.Value),
+            (IntValue l, FloatValue r, BinaryOp.Mul) => new FloatValue(l.Value * r.Value),
+            (FloatValue l, FloatValue r, BinaryOp.Mul) => new FloatValue(l.Value * r.Value),
+            (FloatValue l, IntValue r, BinaryOp.Mul) => new FloatValue(l.Value * r.Value),
+
+            (IntValue l, IntValue r, BinaryOp.Div) => new IntValue(l.Value / r.Value),
+            (IntValue l, FloatValue r, BinaryOp.Div) => new FloatValue(l.Value / r.Value),
+            (FloatValue l, FloatValue r, BinaryOp.Div) => new FloatValue(l.Value / r.Value),
+            (FloatValue l, IntValue r, BinaryOp.Div) => new FloatValue(l.Value / r.Value),
+
+            (IntValue l, IntValue r, BinaryOp.Mod) => new IntValue(l.Value % r.Value),
+
+            (IntValue l, IntValue r, BinaryOp.Lt or BinaryOp.Le or BinaryOp.Gt or BinaryOp.Ge) => Relational(op, l.Value.CompareTo(r.Value)),
+            (IntValue l, FloatValue r, BinaryOp.Lt or BinaryOp.Le or BinaryOp.Gt or BinaryOp.Ge) => Relational(op, ((decimal)l.Value).CompareTo(r.Value)),
+            (FloatValue l, FloatValue r, BinaryOp.Lt or BinaryOp.Le or BinaryOp.Gt or BinaryOp.Ge) => Relational(op, l.Value.CompareTo(r.Value)),
+            (FloatValue l, IntValue r, BinaryOp.Lt or BinaryOp.Le or BinaryOp.Gt or BinaryOp.Ge) => Relational(op, l.Value.CompareTo((decimal)r.Value)),
+            (RuneValue l, RuneValue r, BinaryOp.Lt or BinaryOp.Le or BinaryOp.Gt or BinaryOp.Ge) => Relational(op, l.Value.CompareTo(r.Value)),
+
+            (IntValue l, IntValue r, BinaryOp.Eq or BinaryOp.Ne) => Equality(op, l.Value == r.Value),
+            (IntValue l, FloatValue r, BinaryOp.Eq or BinaryOp.Ne) => Equality(op, l.Value == r.Value),
+            (FloatValue l, FloatValue r, BinaryOp.Eq or BinaryOp.Ne) => Equality(op, l.Value == r.Value),
+            (FloatValue l, IntValue r, BinaryOp.Eq or BinaryOp.Ne) => Equality(op, l.Value == r.Value),
+            (BoolValue l, BoolValue r, BinaryOp.Eq or BinaryOp.Ne) => Equality(op, l.Value == r.Value),
+            (StringValue l, StringValue r, BinaryOp.Eq or BinaryOp.Ne) => Equality(op, l.Value == r.Value),
+            (RuneValue l, RuneValue r, BinaryOp.Eq or BinaryOp.Ne) => Equality(op, l.Value == r.Value),
+            (VoidValue, VoidValue, BinaryOp.Eq or BinaryOp.Ne) => Equality(op, true),
+            (VoidValue, _, BinaryOp.Eq or BinaryOp.Ne) or (_, VoidValue, BinaryOp.Eq or BinaryOp.Ne) => Equality(op, false),
+
+            (BoolValue l, BoolValue r, BinaryOp.And) => new BoolValue(l.Value && r.Value),
+            (BoolValue l, BoolValue r, BinaryOp.Or) => new BoolValue(l.Value || r.Value),
+
+            _ => throw new SemanticError("Error Semantico: Operacion Invalida", pos)
+        };
+    }
+
+    private static BoolValue Relational(BinaryOp op, int comparison)
+    {
+        return op switch
+        {
+            BinaryOp.Lt => new BoolValue(comparison < 0),
+            BinaryOp.Le => new BoolValue(comparison <= 0),
+            BinaryOp.Gt => new BoolValue(comparison > 0),
+            _ => new BoolValue(comparison >= 0)
+        };
+    }
+
+    private static BoolValue Equality(BinaryOp op, bool equals)
+    {
+        return new BoolValue(op == BinaryOp.Eq ? equals : !equals);
+    }
+
+    private ValueWrapper EvaluateAssign(Assign e)
+    {
+        ValueWrapper value = Evaluate(e.Value);
+
+        switch (e.Target)
+        {
+            case VarRef target:
+            {
+                ValueWrapper variable = Load(target);
+
+                // Si la variable ya tiene un valor, el tipo de dato debe coincidir
+                if (variable is not VoidValue && !SameType(variable, value))
+                {
+                    throw new SemanticError($"Error Semantico: el tipo {value.GetType().Name} no coicidi con variable '{target.Name}'", e.Pos);
+                }
+
+                Store(target, value);
+                return value;
+            }
+            case IndexExpr target:
+            {
+                SetAt(Load(target.Array), IndexValue(Evaluate(target.Index), e.Pos), value, e.Pos);
+                return value;
+            }
+            case MatrixIndexExpr target:
+            {
+                ValueWrapper matrix = Load(target.Matrix);
+                SetMatrixAt(matrix, IndexValue(Evaluate(target.Row), e.Pos), IndexValue(Evaluate(target.Column), e.Pos), value, e.Pos);
+                return value;
+            }
+            case FieldGet target:
+            {
+                return SetField(Evaluate(target.Target), target.Cache, value, e.Pos);
+            }
+            default:
+                throw new SemanticError("Error Semantico: Asignacion Invalida", e.Pos);
+        }
+    }
+
+    private ValueWrapper EvaluateCompoundAssign(CompoundAssign e)
+    {
+        ValueWrapper right = Evaluate(e.Value);
+        ValueWrapper left = Load(e.Target);
+
+        // Un int no puede pasar a float64 con += o -=
+        if (left is IntValue && right is not IntValue || left is StringValue && e.Op != BinaryOp.Add)
+        {
+            throw new SemanticError($"Error Semantico: No se puede aplicar el operador entre {left.GetType().Name} y {right.GetType().Name}.", e.Pos);
+        }
+
+        ValueWrapper result = BinaryOperation(e.Op, left, right, e.Pos);
+        Store(e.Target, result);
+        return result;
+    }
+
+    private ValueWrapper EvaluateIncDec(IncDec e)
+    {
+        ValueWrapper left = Load(e.Target);
+
+        ValueWrapper result = left switch
+        {
+            IntValue l => new IntValue(l.Value + e.Delta),
+            FloatValue f => new FloatValue(f.Value + e.Delta),
+            _ => throw new SemanticError($"Error Semantico: Operacion invalida  {left.GetType().Name}.", e.Pos)
+        };
+
+        Store(e.Target, result);
+        return result;
+    }
+
+    private ValueWrapper EvaluateSliceLiteral(SliceLiteral e)
+    {
+        var values = new ValueWrapper[e.Elements.Length];
+
+        for (int i = 0; i < values.Length; i++)
+        {
+            values[i] = Evaluate(e.Elements[i]);
+        }
+
+        return NewSlice(e.ElementType, values, e.Pos);
+    }
+
+    private ValueWrapper EvaluateIndex(IndexExpr e)
+    {
+        int i = IndexValue(Evaluate(e.Index), e.Pos);
+        return IndexAt(Load(e.Array), i, e.Pos);
+    }
+
+    private ValueWrapper EvaluateMatrixIndex(MatrixIndexExpr e)
+    {
+        int i = IndexValue(Evaluate(e.Row), e.Pos);
+        int j = IndexValue(Evaluate(e.Column), e.Pos);
+
+        return MatrixAt(Load(e.Matrix), i, j, e.Pos);
+    }
+
+    // Slices y matrices, tambien los usa el backend compilado
+    public static SliceValue NewSlice(string elementType, IReadOnlyList<ValueWrapper> values, int pos)
+    {
+        return new SliceValue(SliceData.From(elementType, values, pos));
+    }
+
+    public static FlatMatrixValue NewMatrix(string elementType, ValueWrapper[][] rows, int pos)
+    {
+        var matrix = new FlatMatrix(elementType, rows.Sum(row => row.Length));
+
+        foreach (var row in rows)
+        {
+            foreach (var value in row)
+            {
+                if (!MatchesType(elementType, value))
+                {
+                    throw new SemanticError($"Error Semantico: el tipo de valor {value.GetType().Name} no coincide con el tipo {elementType} de la matriz", pos);
+                }
+            }
+
+            matrix.AddRow(SliceData.From(elementType, row, pos), pos);
+        }
+
+        return new FlatMatrixValue(matrix);
+    }
+
+    public static SliceData RangeSource(ValueWrapper source, int pos)
+    {
+        if (source is not SliceValue slice)
+        {
+            throw new SemanticError("Error Semántico: No se puede iterar, la expresión no es un Slice", pos);
+        }
+
+        return slice.Data;
+    }
+
+    public static ValueWrapper IndexAt(ValueWrapper target, int i, int pos)
+    {
+        return target switch
+        {
+            SliceValue slice => slice.Data.Get(i, pos),
+            // Acceso a una fila de la matriz
+            FlatMatrixValue matrix => new SliceValue(matrix.Data.Row(i, pos)),
+            _ => throw new SemanticError("Error Semántico: No es un arreglo ni una matriz", pos)
+        };
+    }
+
+    public static ValueWrapper MatrixAt(ValueWrapper target, int i, int j, int pos)
+    {
+        if (target is not FlatMatrixValue matrix)
+        {
+            throw new SemanticError("Error Semantico: No es una matriz", pos);
+        }
+
+        return matrix.Data.Get(i, j, pos);
+    }
+
+    public static void SetAt(ValueWrapper target, int i, ValueWrapper value, int pos)
+    {
+        if (target is not SliceValue slice)
+        {
+            throw new SemanticError("Error Semantico: No es un valor invalido", pos);
+        }
+
+        slice.Data.Set(i, value, pos);
+    }
+
+    public static void SetMatrixAt(ValueWrapper target, int i, int j, ValueWrapper value, int pos)
+    {
+        if (target is not FlatMatrixValue matrix)
+        {
+            throw new SemanticError("Error Semántico: No es una matriz", pos);
+        }
+
+        matrix.Data.Set(i, j, value, pos);
+    }
+
+    // Lecturas con tipo estatico: van directo al arreglo sin crear un IntValue o FloatValue
+    public static int IntAt(ValueWrapper target, int i, int pos)
+    {
+        return target is SliceValue { Data: IntSlice slice } ? slice.At(i, pos) : AsInt(IndexAt(target, i, pos), pos);
+    }
+
+    public static decimal FloatAt(ValueWrapper target, int i, int pos)
+    {
+        return target is SliceValue { Data: FloatSlice slice } ? slice.At(i, pos) : AsFloat(IndexAt(target, i, pos), pos);
+    }
+
+    public static int IntMatrixAt(ValueWrapper target, int i, int j, int pos)
+    {
+        if (target is FlatMatrixValue { Data: var matrix } && matrix.Cells is IntSlice cells)
+        {
+            return cells.Items[matrix.Cell(i, j, pos)];
+        }
+
+        return AsInt(MatrixAt(target, i, j, pos), pos);
+    }
+
+    public static decimal FloatMatrixAt(ValueWrapper target, int i, int j, int pos)
+    {
+        if (target is FlatMatrixValue { Data: var matrix } && matrix.Cells is FloatSlice cells)
+        {
+            return cells.Items[matrix.Cell(i, j, pos)];
+        }
+
+        return AsFloat(MatrixAt(target, i, j, pos), pos);
+    }
+
+    // Misma clase de valor y, en slices y matrices, mismo tipo de elemento
+    public static bool SameType(ValueWrapper variable, ValueWrapper value)
+    {
+        return (variable, value) switch
+        {
+            (SliceValue a, SliceValue b) => a.Data.ElementType == b.Data.ElementType,
+            (FlatMatrixValue a, FlatMatrixValue b) => a.Data.ElementType == b.Data.ElementType,
+            _ => variable.GetType() == value.GetType()
+        };
+    }
+
+    private static int IndexValue(ValueWrapper index, int pos)
+    {
+        if (index is not IntValue intIndex)
+        {
+            throw new SemanticError("Error Semántico: Índice inválido", pos);
+        }
+
+        return intIndex.Value;
+    }
+
+    private ValueWrapper EvaluateStructLiteral(StructLiteral e)
+    {
+        if (Load(e.Type) is not StructTypeValue structType)
+        {
+            throw new SemanticError("Error Semantico: Clase no encontrada", e.Pos);
+        }
+
+        var values = new List<ValueWrapper>(e.Values.Length);
+        foreach (var value in e.Values)
+        {
+            values.Add(Evaluate(value));
+        }
+
+        return Instantiate(structType.Decl, e.Cache, values, e.Pos);
+    }
+
+    // names == null cuando el struct se invoca como funcion con argumentos posicionales
+    private StructInstanceValue Instantiate(StructDecl decl, FieldCache? names, List<ValueWrapper> values, int pos)
+    {
+        var fields = new ValueWrapper[decl.Fields.Length];
+
+        // Los valores iniciales de los campos se resolvieron contra el frame global
+        Frame previousFrame = frame;
+        frame = globals;
+
+        try
+        {
+            for (int i = 0; i < fields.Length; i++)
+            {
+                var field = decl.Fields[i];
+                fields[i] = field.Init != null ? Evaluate(field.Init)
+                    : field.Type != null ? DefaultValue(field.Type, field.Pos)
+                    : defaultVoid;
+            }
+        }
+        finally
+        {
+            frame = previousFrame;
+        }
+
+        if (names == null)
+        {
+            if (values.Count != decl.Fields.Length)
+            {
+                throw new SemanticError($"Error Semántico: Se esperaban {decl.Fields.Length} argumentos, pero se recibieron {values.Count}.", pos);
+            }
+
+            values.CopyTo(fields);
+        }
+        else
+        {
+            int[] slots = names.Slots(decl, pos);
+            for (int i = 0; i < slots.Length; i++)
+            {
+                fields[slots[i]] = values[i];
+            }
+        }
+
+        return new StructInstanceValue(decl, fields);
+    }
+
+    // El cache del nodo da el slot del campo, sin buscar el nombre
+    public static ValueWrapper GetField(ValueWrapper target, FieldCache field, int pos)
+    {
+        if (target is not StructInstanceValue instancia)
+        {
+            throw new SemanticError("Error Semantico: Propiedad invalida o no encontrada", pos);
+        }
+
+        return instancia.Fields[field.Slot(instancia.Decl, pos)];
+    }
+
+    public static ValueWrapper SetField(ValueWrapper target, FieldCache field, ValueWrapper value, int pos)
+    {
+        if (target is not StructInstanceValue instancia)
+        {
+            throw new SemanticError("Error Semantico: Propiedad invalida o no encontrada", pos);
+        }
+
+        instancia.Fields[field.Slot(instancia.Decl, pos)] = value;
+        return value;
+    }
+
+
+    // Llamadas
+    private ValueWrapper EvaluateCall(Call e)
+    {
+        ValueWrapper callee = Evaluate(e.Callee);
+
+        var arguments = new List<ValueWrapper>(e.Args.Length);
+        foreach (var arg in e.Args)
+        {
+            arguments.Add(Evaluate(arg));
+        }
+
+        return callee switch
+        {
+            ClosureValue closure => Invoke(closure, arguments, e.Pos),
+            BuiltinValue builtin => CallBuiltin(builtin.Name, arguments, output, e.Pos),
+            StructTypeValue structType => Instantiate(structType.Decl, null, arguments, e.Pos),
+            _ => throw new SemanticError("Error Semantico: Funcion invalida o no encontrada", e.Pos)
+        };
+    }
+
+    public ValueWrapper Invoke(ClosureValue closure, List<ValueWrapper> arguments, int pos)
+    {
+        FuncDecl decl = closure.Decl;
+
+        if (arguments.Count != decl.Params.Length)
+        {
+            throw new SemanticError($"Error Semantico: la funcion {decl.Name} espera {decl.Params.Length} argumentos, pero recibio {arguments.Count}", pos);
+        }
+
+        Budget.Enter(pos);
+
+        Frame previousFrame = frame;
+        frame = new Frame(decl.FrameSize, closure.Closure);
+
+        try
+        {
+            for (int i = 0; i < decl.Params.Length; i++)
+            {
+                frame.Slots[i] = Argument(decl, i, arguments[i], pos);
+            }
+
+            foreach (var stmt in decl.Body)
+            {
+                Execute(stmt);
+            }
+
+            return defaultVoid;
+        }
+        catch (ReturnException e)
+        {
+            return e.Value;
+        }
+        finally
+        {
+            frame = previousFrame;
+            Budget.Exit();
+        }
+    }
+
+    // El argumento debe tener el tipo del parametro, un int se acepta como float64.
+    // TypeChecker confia en el tipo de los parametros para especializar el cuerpo.
+    public static ValueWrapper Argument(FuncDecl decl, int index, ValueWrapper value, int pos)
+    {
+        string type = decl.ParamTypes[index];
+
+        if (MatchesType(type, value))
+        {
+            return value;
+        }
+
+        if (type == "float64" && value is IntValue intValue)
+        {
+            return new FloatValue(intValue.Value);
+        }
+
+        throw new SemanticError($"Error Semantico: el parametro {decl.Params[index]} de {decl.Name} espera {type}, pero recibio {value.GetType().Name}", pos);
+    }
+
+    // Compartido con CompiledProgram, fmt.Println escribe en output
+    public static ValueWrapper CallBuiltin(string name, List<ValueWrapper> arguments, OutputSink output, int pos)
+    {
+        switch (name)
+        {
+            case "fmt.Println":
+                output.Write(PrintEmbeded.Format(arguments));
+                return new VoidValue();
+            case "strconv.Atoi":
+                RequireArgs(name, arguments, 1, pos);
+                return StrconvAtoi.Apply(arguments);
+            case "strconv.ParseFloat":
+                RequireArgs(name, arguments, 1, pos);
+                return StrconFloat.Apply(arguments);
+            case "reflect.TypeOf":
+                RequireArgs(name, arguments, 1, pos);
+                return ReflecType.Apply(arguments);
+            case "slices.Index":
+                RequireArgs(name, arguments, 2, pos);
+                return SliceIndex.Apply(arguments);
+            case "strings.Join":
+                RequireArgs(name, arguments, 2, pos);
+                return StringsJoin.Apply(arguments);
+            case "len":
+                RequireArgs(name, arguments, 1, pos);
+                return Len.Apply(arguments);
+            case "append":
+                RequireArgs(name, arguments, 2, pos);
+                return Append.Apply(arguments);
+            default:
+                throw new SemanticError("Embeded " + name + " not found", pos);
+        }
+    }
+
+    private static void RequireArgs(string name, List<ValueWrapper> arguments, int count, int pos)
+    {
+        if (arguments.Count < count)
+        {
+            throw new SemanticError($"Error Semantico: {name} espera {count} argumentos, pero recibio {arguments.Count}", pos);
+        }
+    }
+
+
+    // Tipos
+    public static bool MatchesType(string type, ValueWrapper value)
+    {
+        return (type == "int" && value is IntValue) ||
+               (type == "float64" && value is FloatValue) ||
+               (type == "string" && value is StringValue) ||
+               (type == "bool" && value is BoolValue) ||
+               (type == "rune" && value is RuneValue);
+    }
+
+    // Valor de una expresion con tipo estatico int o float64; si en ejecucion llega otra cosa es un error
+    // del programa, no del interprete
+    public static int AsInt(ValueWrapper value, int pos)
+    {
+        return value is IntValue i ? i.Value
+            : throw new SemanticError($"Error Semantico: se esperaba int y se obtuvo {value.GetType().Name}", pos);
+    }
+
+    public static decimal AsFloat(ValueWrapper value, int pos)
+    {
+        return value is FloatValue f ? f.Value
+            : throw new SemanticError($"Error Semantico: se esperaba float64 y se obtuvo {value.GetType().Name}", pos);
+    }
+
+    public static ValueWrapper DefaultValue(string type, int pos)
+    {
+        return type switch
+        {
+            "int" => new IntValue(0),
+            "float64" => new FloatValue(0.0m),
+            "string" => new StringValue(""),
+            "bool" => new BoolValue(false),
+            "rune" => new RuneValue(' '),
+            _ => throw new SemanticError($"Error Semantico: tipo no validado: {type}", pos)
+        };
+    }
+}
@@ -0,0 +1,526 @@
+using System.Globalization;
+using analyzer;
+using Antlr4.Runtime;
+using Antlr4.Runtime.Tree;
+
+// Convierte el arbol de ANTLR (ProgramContext) en el AST compacto de Ast.cs.
+// Tambien resuelve cada variable a un par (profundidad, slot): la profundidad es cuantas
+// funciones hay que subir y el slot la posicion dentro del frame de esa funcion.
+public class AstLowering : LanguageBaseVisitor<AstNode>
+{
+    // Funciones embebidas, cualquier otro ID.ID es acceso a un campo de un struct
+    private static readonly HashSet<string> Builtins = new HashSet<string>
+    {
+        "fmt.Println",
+        "strconv.Atoi",
+        "strconv.ParseFloat",
+        "reflect.TypeOf",
+        "slices.Index",
+        "strings.Join"
+    };
+
+    // Alcances de una funcion, cada bloque es un diccionario nombre -> slot
+    private sealed class FunctionScope
+    {
+        public readonly FunctionScope? Parent;
+        public readonly List<Dictionary<string, int>> Blocks = new List<Dictionary<string, int>>();
+        public int FrameSize;
+
+        public FunctionScope(FunctionScope? parent)
+        {
+            Parent = parent;
+            Blocks.Add(new Dictionary<string, int>());
+        }
+    }
+
+    private readonly FunctionScope globalScope = new FunctionScope(null);
+    private FunctionScope scope;
+
+    private AstLowering()
+    {
+        scope = globalScope;
+    }
+
+    public static AstProgram Lower(LanguageParser.ProgramContext context)
+    {
+        var lowering = new AstLowering();
+
+        // Las declaraciones globales se registran antes para que las funciones puedan usar
+        // funciones y variables declaradas mas abajo
+        foreach (var dcl in context.dcl())
+        {
+            lowering.DeclareGlobal(dcl);
+        }
+
+        var declarations = lowering.Stmts(context.dcl());
+
+        // Plegado de constantes y luego inferencia de tipos: especializa la aritmetica y las comparaciones de int y float64
+        return TypeChecker.Check(ConstantFolder.Fold(new AstProgram(declarations, lowering.globalScope.FrameSize)));
+    }
+
+    // Mide la memoria retenida por el arbol de ANTLR y por el AST del mismo programa
+    public static AstFootprint MeasureFootprint(string code)
+    {
+        long before = GC.GetTotalMemory(true);
+        var tree = ParserDriver.Parse(code);
+        long afterTree = GC.GetTotalMemory(true);
+        var program = Lower(tree);
+        long afterAst = GC.GetTotalMemory(true);
+
+        GC.KeepAlive(tree);
+        GC.KeepAlive(program);
+
+        int lines = Math.Max(1, code.Split('\n').Length);
+        return new AstFootprint(lines, afterTree - before, afterAst - afterTree);
+    }
+
+
+    private static int Pos(ParserRuleContext context)
+    {
+        return SourcePos.Pack(context.Start);
+    }
+
+
+    // Resolucion de variables
+    private void DeclareGlobal(LanguageParser.DclContext dcl)
+    {
+        var name = dcl.varDcl()?.ID() ?? dcl.funcDcl()?.ID() ?? dcl.structDcl()?.ID() ?? dcl.slice()?.ID() ?? dcl.matrix()?.ID();
+        if (name != null)
+        {
+            DeclareSlot(name.GetText(), SourcePos.Pack(name.Symbol));
+        }
+    }
+
+    private int DeclareSlot(string id, int pos)
+    {
+        var block = scope.Blocks[scope.Blocks.Count - 1];
+        if (block.ContainsKey(id))
+        {
+            throw new SemanticError("Variable " + id + " ya declarada", pos);
+        }
+
+        int slot = scope.FrameSize++;
+        block[id] = slot;
+        return slot;
+    }
+
+    // Las globales ya tienen slot desde DeclareGlobal
+    private int Declare(string id, int pos)
+    {
+        if (scope == globalScope && scope.Blocks.Count == 1)
+        {
+            return scope.Blocks[0][id];
+        }
+
+        return DeclareSlot(id, pos);
+    }
+
+    private VarRef? TryResolve(string id, int pos)
+    {
+        int depth = 0;
+        for (var current = scope; current != null; current = current.Parent, depth++)
+        {
+            for (int i = current.Blocks.Count - 1; i >= 0; i--)
+            {
+                if (current.Blocks[i].TryGetValue(id, out int slot))
+                {
+                    return new VarRef(pos, id, depth, slot);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private VarRef Resolve(string id, int pos)
+    {
+        return TryResolve(id, pos) ?? throw new SemanticError("Variable " + id + " no encontrada", pos);
+    }
+
+    private T InBlock<T>(Func<T> lower)
+    {
+        scope.Blocks.Add(new Dictionary<string, int>());
+        try
+        {
+            return lower();
+        }
+        finally
+        {
+            scope.Blocks.RemoveAt(scope.Blocks.Count - 1);
+        }
+    }
+
+    private AstExpr Expr(LanguageParser.ExprContext context)
+    {
+        return (AstExpr)Visit(context);
+    }
+
+    private AstStmt Stmt(IParseTree context)
+    {
+        return (AstStmt)Visit(context);
+    }
+
+    private AstStmt[] Stmts(IEnumerable<IParseTree> contexts)
+    {
+        return contexts.Select(Stmt).ToArray();
+    }
+
+    private AstExpr[] Args(LanguageParser.ArgsContext? context)
+    {
+        if (context == null)
+        {
+            return Array.Empty<AstExpr>();
+        }
+
+        return context.expr().Select(Expr).ToArray();
+    }
+
+    private static BinaryOp Op(IToken op)
+    {
+        return op.Text switch
+        {
+            "+" => BinaryOp.Add,
+            "-" => BinaryOp.Sub,
+            "*" => BinaryOp.Mul,
+            "/" => BinaryOp.Div,
+            "%" => BinaryOp.Mod,
+            "<" => BinaryOp.Lt,
+            "<=" => BinaryOp.Le,
+            ">" => BinaryOp.Gt,
+            ">=" => BinaryOp.Ge,
+            "==" => BinaryOp.Eq,
+            "!=" => BinaryOp.Ne,
+            "&&" => BinaryOp.And,
+            "||" => BinaryOp.Or,
+            "+=" => BinaryOp.Add,
+            "-=" => BinaryOp.Sub,
+            _ => throw new SemanticError($"Error Semantico: operador invalido {op.Text}", op)
+        };
+    }
+
+
+    // Declaraciones
+    public override AstNode VisitDcl(LanguageParser.DclContext context)
+    {
+        return Visit(context.GetChild(0));
+    }
+
+    public override AstNode VisitVarDcl(LanguageParser.VarDclContext context)
+    {
+        // El valor inicial se resuelve antes de declarar: en x := x + 1 la x de la derecha es la de afuera
+        var init = context.expr() == null ? null : Expr(context.expr());
+        string id = context.ID().GetText();
+
+        return new VarDecl(Pos(context), id, context.type()?.GetText(), init, Declare(id, Pos(context)));
+    }
+
+    public override AstNode VisitSlice(LanguageParser.SliceContext context)
+    {
+        string id = context.ID().GetText();
+        return new SliceDecl(Pos(context), id, context.type().GetText(), Declare(id, Pos(context)));
+    }
+
+    public override AstNode VisitMatrix(LanguageParser.MatrixContext context)
+    {
+        var rows = context.args().Select(Args).ToArray();
+        string id = context.ID().GetText();
+
+        return new MatrixDecl(Pos(context), id, context.type().GetText(), rows, Declare(id, Pos(context)));
+    }
+
+    public override AstNode VisitFuncDcl(LanguageParser.FuncDclContext context)
+    {
+        var parameters = context.@params();
+        var names = parameters == null ? Array.Empty<string>() : parameters.ID().Select(id => id.GetText()).ToArray();
+        var types = parameters == null ? Array.Empty<string>() : parameters.type().Select(t => t.GetText()).ToArray();
+
+        // Se declara antes del cuerpo para permitir recursion
+        string name = context.ID().GetText();
+        int slot = Declare(name, Pos(context));
+
+        var outer = scope;
+        scope = new FunctionScope(outer);
+
+        try
+        {
+            foreach (var param in names)
+            {
+                DeclareSlot(param, Pos(context));
+            }
+
+            var body = Stmts(context.dcl());
+            return new FuncDecl(Pos(context), name, names, types, context.type()?.GetText(), body, slot, scope.FrameSize);
+        }
+        finally
+        {
+            scope = outer;
+        }
+    }
+
+    public override AstNode VisitStructDcl(LanguageParser.StructDclContext context)
+    {
+        string name = context.ID().GetText();
+        int slot = Declare(name, Pos(context));
+
+        // Los valores iniciales de los campos se evaluan en el frame global al crear la instancia
+        var outer = scope;
+        scope = globalScope;
+
+        try
+        {
+            var fields = context.varDcl().Select(field => new VarDecl(Pos(field), field.ID().GetText(), field.type()?.GetText(),
+                field.expr() == null ? null : Expr(field.expr()), -1)).ToArray();
+
+            return new StructDecl(Pos(context), name, fields, slot);
+        }
+        finally
+        {
+            scope = outer;
+        }
+    }
+
+
+    // Sentencias
+    public override AstNode VisitExprStmt(LanguageParser.ExprStmtContext context)
+    {
+        return new ExprStmt(Pos(context), Expr(context.expr()));
+    }
+
+    public override AstNode VisitBlockStmt(LanguageParser.BlockStmtContext context)
+    {
+        return new Block(Pos(context), InBlock(() => Stmts(context.dcl())));
+    }
+
+    public override AstNode VisitIfStmt(LanguageParser.IfStmtContext context)
+    {
+        var otherwise = context.stmt().Length > 1 ? Stmt(context.stmt(1)) : null;
+        return new IfStmt(Pos(context), Expr(context.expr()), Stmt(context.stmt(0)), otherwise);
+    }
+
+    public override AstNode VisitSwitchStmt(LanguageParser.SwitchStmtContext context)
+    {
+        var subject = Expr(context.expr());
+
+        // Cada case tiene su propio alcance
+        var cases = context.cases().Select(c => new SwitchCase(Expr(c.expr()), InBlock(() => Stmts(c.stmt())))).ToArray();
+        var defaultBody = context.defaultSwitch() == null ? null : InBlock(() => Stmts(context.defaultSwitch().stmt()));
+
+        return new SwitchStmt(Pos(context), subject, cases, defaultBody);
+    }
+
+    public override AstNode VisitForStmt(LanguageParser.ForStmtContext context)
+    {
+        return InBlock(() =>
+        {
+            var forInit = context.forInit();
+            AstStmt init = forInit.varDcl() != null
+                ? Stmt(forInit.varDcl())
+                : new ExprStmt(Pos(forInit), Expr(forInit.expr()));
+
+            return new ForStmt(Pos(context), init, Expr(context.expr(0)), Expr(context.expr(1)), Stmt(context.stmt()));
+        });
+    }
+
+    public override AstNode VisitForCondStmt(LanguageParser.ForCondStmtContext context)
+    {
+        return new WhileStmt(Pos(context), Expr(context.expr()), Stmt(context.stmt()));
+    }
+
+    public override AstNode VisitForRange(LanguageParser.ForRangeContext context)
+    {
+        var source = Expr(context.expr());
+        string indexName = context.ID(0).GetText();
+        string valueName = context.ID(1).GetText();
+
+        return InBlock(() =>
+        {
+            int indexSlot = DeclareSlot(indexName, Pos(context));
+            int valueSlot = DeclareSlot(valueName, Pos(context));
+
+            return new ForRangeStmt(Pos(context), indexName, valueName, source, Stmt(context.stmt()), indexSlot, valueSlot);
+        });
+    }
+
+    public override AstNode VisitBreakStmt(LanguageParser.BreakStmtContext context)
+    {
+        return new BreakStmt(Pos(context));
+    }
+
+    public override AstNode VisitContinueStmt(LanguageParser.ContinueStmtContext context)
+    {
+        return new ContinueStmt(Pos(context));
+    }
+
+    public override AstNode VisitReturnStmt(LanguageParser.ReturnStmtContext context)
+    {
+        return new ReturnStmt(Pos(context), context.expr() == null ? null : Expr(context.expr()));
+    }
+
+
+    // Expresiones
+    public override AstNode VisitNegate(LanguageParser.NegateContext context)
+    {
+        return new Negate(Pos(context), Expr(context.expr()));
+    }
+
+    public override AstNode VisitNot(LanguageParser.NotContext context)
+    {
+        return new Not(Pos(context), Expr(context.expr()));
+    }
+
+    public override AstNode VisitCallee(LanguageParser.CalleeContext context)
+    {
+        AstExpr callee = Expr(context.expr());
+
+        foreach (var acciones in context.call())
+        {
+            if (acciones is LanguageParser.FuncCallContext funcall)
+            {
+                callee = new Call(Pos(funcall), callee, Args(funcall.args()));
+            }
+            else if (acciones is LanguageParser.GetContext propiedad)
+            {
+                callee = new FieldGet(Pos(propiedad), callee, propiedad.ID().GetText());
+            }
+        }
+
+        return callee;
+    }
+
+    public override AstNode VisitMulDivMod(LanguageParser.MulDivModContext context)
+    {
+        return new Binary(Pos(context), Op(context.op), Expr(context.expr(0)), Expr(context.expr(1)));
+    }
+
+    public override AstNode VisitAddSub(LanguageParser.AddSubContext context)
+    {
+        return new Binary(Pos(context), Op(context.op), Expr(context.expr(0)), Expr(context.expr(1)));
+    }
+
+    public override AstNode VisitRelational(LanguageParser.RelationalContext context)
+    {
+        return new Binary(Pos(context), Op(context.op), Expr(context.expr(0)), Expr(context.expr(1)));
+    }
+
+    public override AstNode VisitEquality(LanguageParser.EqualityContext context)
+    {
+        return new Binary(Pos(context), Op(context.op), Expr(context.expr(0)), Expr(context.expr(1)));
+    }
+
+    public override AstNode VisitLogical(LanguageParser.LogicalContext context)
+    {
+        return new Binary(Pos(context), Op(context.op), Expr(context.expr(0)), Expr(context.expr(1)));
+    }
+
+    public override AstNode VisitIncDecAssign(LanguageParser.IncDecAssignContext context)
+    {
+        return new CompoundAssign(Pos(context), Resolve(context.ID().GetText(), Pos(context)), Op(context.op), Expr(context.expr()));
+    }
+
+    public override AstNode VisitAssign(LanguageParser.AssignContext context)
+    {
+        return new Assign(Pos(context), Expr(context.expr(0)), Expr(context.expr(1)));
+    }
+
+    public override AstNode VisitSlices(LanguageParser.SlicesContext context)
+    {
+        return new SliceLiteral(Pos(context), context.type().GetText(), Args(context.args()));
+    }
+
+    public override AstNode VisitIndex(LanguageParser.IndexContext context)
+    {
+        return new IndexExpr(Pos(context), Resolve(context.ID().GetText(), Pos(context)), Expr(context.expr()));
+    }
+
+    public override AstNode VisitMatrixIndex(LanguageParser.MatrixIndexContext context)
+    {
+        return new MatrixIndexExpr(Pos(context), Resolve(context.ID().GetText(), Pos(context)), Expr(context.expr(0)), Expr(context.expr(1)));
+    }
+
+    public override AstNode VisitIncrement(LanguageParser.IncrementContext context)
+    {
+        return new IncDec(Pos(context), Resolve(context.ID().GetText(), Pos(context)), 1);
+    }
+
+    public override AstNode VisitDecrement(LanguageParser.DecrementContext context)
+    {
+        return new IncDec(Pos(context), Resolve(context.ID().GetText(), Pos(context)), -1);
+    }
+
+    public override AstNode VisitInStruct(LanguageParser.InStructContext context)
+    {
+        var props = context.props();
+        var fields = props == null ? Array.Empty<string>() : props.ID().Select(id => id.GetText()).ToArray();
+        var values = props == null ? Array.Empty<AstExpr>() : props.expr().Select(Expr).ToArray();
+
+        var type = TryResolve(context.ID().GetText(), Pos(context))
+            ?? throw new SemanticError("Error Semantico: Clase no encontrada", Pos(context));
+
+        return new StructLiteral(Pos(context), type, fields, values);
+    }
+
+    public override AstNode VisitBoolean(LanguageParser.BooleanContext context)
+    {
+        return new BoolLiteral(Pos(context), bool.Parse(context.BOOL().GetText()));
+    }
+
+    public override AstNode VisitFloat(LanguageParser.FloatContext context)
+    {
+        return new FloatLiteral(Pos(context), decimal.Parse(context.FLOAT().GetText(), CultureInfo.InvariantCulture));
+    }
+
+    public override AstNode VisitString(LanguageParser.StringContext context)
+    {
+        string text = context.STRING().GetText();
+        return new StringLiteral(Pos(context), text.Substring(1, text.Length - 2));
+    }
+
+    public override AstNode VisitInt(LanguageParser.IntContext context)
+    {
+        return new IntLiteral(Pos(context), int.Parse(context.INT().GetText()));
+    }
+
+    public override AstNode VisitIdentifier(LanguageParser.IdentifierContext context)
+    {
+        string id = context.ID().GetText();
+        var variable = TryResolve(id, Pos(context));
+
+        // len y append se pueden redefinir como variables
+        if (variable == null && (id == "len" || id == "append"))
+        {
+            return new BuiltinRef(Pos(context), id);
+        }
+
+        return variable ?? throw new SemanticError("Variable " + id + " no encontrada", Pos(context));
+    }
+
+    public override AstNode VisitNill(LanguageParser.NillContext context)
+    {
+        return new NilLiteral(Pos(context));
+    }
+
+    public override AstNode VisitRune(LanguageParser.RuneContext context)
+    {
+        return new RuneLiteral(Pos(context), context.RUNE().GetText()[1]);
+    }
+
+    // El lexer junta "persona.Nombre" en un solo token EMBEDDED
+    public override AstNode VisitEmbedded(LanguageParser.EmbeddedContext context)
+    {
+        string text = context.EMBEDDED().GetText();
+        if (Builtins.Contains(text))
+        {
+            return new BuiltinRef(Pos(context), text);
+        }
+
+        int dot = text.IndexOf('.');
+        return new FieldGet(Pos(context), Resolve(text.Substring(0, dot), Pos(context)), text.Substring(dot + 1));
+    }
+
+    public override AstNode VisitParens(LanguageParser.ParensContext context)
+    {
+        return Expr(context.expr());
+    }
+}
+
+public record AstFootprint(int Lines, long ParseTreeBytes, long AstBytes);
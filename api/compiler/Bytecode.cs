@@ -0,0 +1,237 @@
+using System.Text;
+
+// Conjunto de instrucciones de la VM de registros (BytecodeCompiler, BytecodeVM).
+// Los registros son los slots del Frame: rN es Frame.Slots[N] (ValueWrapper) e iN es Frame.Scalars[N]
+// (int, bool y rune sin caja). Los primeros FrameSize registros son las variables de la funcion,
+// los demas son temporales. k[N] es la constante N de la funcion y @N la instruccion destino de un salto.
+public enum OpCode : byte
+{
+    LoadConst,      // rA = k[B]
+    LoadInt,        // iA = B
+    Move,           // rA = rB
+    MoveInt,        // iA = iB
+    LoadOuter,      // rA = variable k[B] (VarRef) de un frame de arriba o global, error si esta vacia
+    StoreOuter,     // variable k[B] = rA
+    Box,            // rA = int iB
+    BoxBool,        // rA = bool iB
+    BoxRune,        // rA = rune iB
+    UnboxInt,       // iA = rB, k[C] es el nombre de la variable para el error (-1 si no hay)
+    UnboxBool,
+    UnboxRune,
+    IntToFloat,     // rA = float64 rB
+
+    // rA = rB op rC con la semantica de AstInterpreter.BinaryOperation, en el orden de BinaryOp
+    Add, Sub, Mul, Div, Mod, Lt, Le, Gt, Ge, Eq, Ne,
+    Negate,         // rA = -rB
+    Not,            // rA = !rB
+    AddAssign,      // rA = rB += rC, con la revision de tipos de +=
+    SubAssign,
+    IncDec,         // rA = rB + C (x++ y x--)
+    CheckAssign,    // error si rA no es del tipo del valor actual rB de la variable k[C]
+
+    // iA = iB op iC
+    AddInt, SubInt, MulInt, DivInt, ModInt,
+    AddIntConst,    // iA = iB + C
+
+    Jump,           // ir a @A
+    Loop,           // paso del sandbox e ir a @A
+    JumpIfFalse,    // si rA es false ir a @B, error si no es bool
+    JumpIfTrue,
+    JumpIfZero,     // si iA == 0 ir a @B
+    JumpIfNotZero,
+    JumpIfEqual,    // si rA es igual a rB ir a @C (case de un switch)
+    // si iA op iB ir a @C, en el orden de las comparaciones de BinaryOp
+    JumpLtInt, JumpLeInt, JumpGtInt, JumpGeInt, JumpEqInt, JumpNeInt,
+    RequireBool,    // error si rA no es bool (operandos de && y ||)
+    Switch,         // sujeto rA, k[B] es la JumpTable y k[C] los destinos de cada case mas el default al final
+
+    Call,           // rA = rB(rB+1 .. rB+C)
+    Return,         // retorna rA
+    ReturnVoid,
+    Raise,          // break (A = 0), continue (1) o return rB (2) fuera de un ciclo o de una funcion
+
+    Index,          // rA = rB[rC]
+    IndexInt,       // iA = rB[iC] sobre []int
+    MatrixIndex,    // rA = rB[rC][rC+1]
+    SetIndex,       // rB[rC] = rA
+    SetMatrix,      // rB[rC][rC+1] = rA
+    GetField,       // rA = rB.campo, k[C] es el FieldCache
+    SetField,       // rB.campo = rA, k[C] es el FieldCache
+    NewSlice,       // rA = slice k[B] (SliceLiteral) con los elementos desde rC
+    NewStruct,      // rA = struct k[B] (StructLiteral) del tipo rC con los valores desde rC+1
+    Len,            // rA = len(rB)
+    LenInt,         // iA = len(rB) de un slice
+    Append,         // rA = append(rB, rC)
+    Range,          // rA = rB, error si rB no se puede recorrer con for range
+    RangeItem,      // rA = rB[i(B+1)] del slice de Range, el indice va en el registro siguiente
+    RangeInt,       // iA = rB[i(B+1)] sobre []int, k[C] es el nombre de la variable para el error
+
+    // Declaraciones, k[B] es el nodo del AST
+    DeclareVar,     // rA = variable k[B] con valor inicial rC (C = -1 sin valor)
+    DeclareSymbol,  // solo agrega k[B] a la tabla de simbolos
+    DeclareFunc,    // rA = funcion k[B] (BytecodeFunction) sobre el frame actual
+    DeclareStruct,  // rA = struct k[B] con los valores iniciales de sus campos k[C]
+    DeclareSlice,   // rA = slice vacio k[B]
+    DeclareMatrix   // rA = matriz k[B] con las celdas desde rC
+}
+
+public struct Instruction
+{
+    public OpCode Op;
+    public int A;
+    public int B;
+    public int C;
+
+    public Instruction(OpCode op, int a, int b, int c)
+    {
+        Op = op;
+        A = a;
+        B = b;
+        C = c;
+    }
+}
+
+// Codigo de una funcion, del codigo global o del valor inicial de un campo de struct.
+// Positions guarda la posicion en el fuente de cada instruccion para los errores.
+public sealed class BytecodeFunction
+{
+    public readonly string Name;
+    public readonly FuncDecl? Decl;
+    public readonly Instruction[] Code;
+    public readonly int[] Positions;
+    public readonly object[] Constants;
+    public readonly int RegisterCount;
+
+    public BytecodeFunction(string name, FuncDecl? decl, Instruction[] code, int[] positions, object[] constants, int registerCount)
+    {
+        Name = name;
+        Decl = decl;
+        Code = code;
+        Positions = positions;
+        Constants = constants;
+        RegisterCount = registerCount;
+    }
+
+    // Listado legible para depurar el compilador, una instruccion por linea
+    public void Disassemble(StringBuilder text)
+    {
+        text.Append("func ").Append(Name).Append(" (").Append(RegisterCount).AppendLine(" registros)");
+
+        for (int pc = 0; pc < Code.Length; pc++)
+        {
+            var ins = Code[pc];
+            text.Append("  ").Append(pc.ToString("D4")).Append("  ")
+                .Append(ins.Op.ToString().PadRight(14))
+                .Append(Operands(ins));
+
+            int line = SourcePos.Line(Positions[pc]);
+            if (line > 0)
+            {
+                text.Append("    ; linea ").Append(line);
+            }
+
+            text.AppendLine();
+        }
+
+        for (int i = 0; i < Constants.Length; i++)
+        {
+            text.Append("  k").Append(i).Append(" = ").AppendLine(Describe(Constants[i]));
+        }
+    }
+
+    private static string Operands(Instruction ins)
+    {
+        return ins.Op switch
+        {
+            OpCode.LoadConst => $"r{ins.A}, k{ins.B}",
+            OpCode.LoadInt => $"i{ins.A}, {ins.B}",
+            OpCode.Move => $"r{ins.A}, r{ins.B}",
+            OpCode.MoveInt => $"i{ins.A}, i{ins.B}",
+            OpCode.LoadOuter or OpCode.StoreOuter => $"r{ins.A}, k{ins.B}",
+            OpCode.Box or OpCode.BoxBool or OpCode.BoxRune => $"r{ins.A}, i{ins.B}",
+            OpCode.UnboxInt or OpCode.UnboxBool or OpCode.UnboxRune => $"i{ins.A}, r{ins.B}" + (ins.C >= 0 ? $", k{ins.C}" : ""),
+            OpCode.IntToFloat or OpCode.Negate or OpCode.Not => $"r{ins.A}, r{ins.B}",
+            >= OpCode.Add and <= OpCode.SubAssign => $"r{ins.A}, r{ins.B}, r{ins.C}",
+            OpCode.IncDec => $"r{ins.A}, r{ins.B}, {ins.C}",
+            OpCode.CheckAssign => $"r{ins.A}, r{ins.B}, k{ins.C}",
+            >= OpCode.AddInt and <= OpCode.ModInt => $"i{ins.A}, i{ins.B}, i{ins.C}",
+            OpCode.AddIntConst => $"i{ins.A}, i{ins.B}, {ins.C}",
+            OpCode.Jump or OpCode.Loop => $"@{ins.A}",
+            OpCode.JumpIfFalse or OpCode.JumpIfTrue => $"r{ins.A}, @{ins.B}",
+            OpCode.RequireBool or OpCode.Return => $"r{ins.A}",
+            OpCode.JumpIfZero or OpCode.JumpIfNotZero => $"i{ins.A}, @{ins.B}",
+            OpCode.JumpIfEqual => $"r{ins.A}, r{ins.B}, @{ins.C}",
+            >= OpCode.JumpLtInt and <= OpCode.JumpNeInt => $"i{ins.A}, i{ins.B}, @{ins.C}",
+            OpCode.Switch => $"r{ins.A}, k{ins.B}, k{ins.C}",
+            OpCode.Call => $"r{ins.A}, r{ins.B}, {ins.C}",
+            OpCode.ReturnVoid => "",
+            OpCode.Raise => $"{ins.A}, r{ins.B}",
+            OpCode.IndexInt => $"i{ins.A}, r{ins.B}, i{ins.C}",
+            OpCode.GetField or OpCode.SetField => $"r{ins.A}, r{ins.B}, k{ins.C}",
+            OpCode.NewSlice or OpCode.NewStruct or OpCode.DeclareMatrix => $"r{ins.A}, k{ins.B}, r{ins.C}",
+            OpCode.Len or OpCode.Range => $"r{ins.A}, r{ins.B}",
+            OpCode.LenInt => $"i{ins.A}, r{ins.B}",
+            OpCode.RangeItem => $"r{ins.A}, r{ins.B}[i{ins.B + 1}]",
+            OpCode.RangeInt => $"i{ins.A}, r{ins.B}[i{ins.B + 1}], k{ins.C}",
+            OpCode.DeclareVar => ins.C >= 0 ? $"r{ins.A}, k{ins.B}, r{ins.C}" : $"r{ins.A}, k{ins.B}",
+            OpCode.DeclareSymbol => $"k{ins.B}",
+            OpCode.DeclareStruct => $"r{ins.A}, k{ins.B}, k{ins.C}",
+            OpCode.DeclareFunc or OpCode.DeclareSlice => $"r{ins.A}, k{ins.B}",
+            _ => $"r{ins.A}, r{ins.B}, r{ins.C}"
+        };
+    }
+
+    private static string Describe(object constant)
+    {
+        return constant switch
+        {
+            IntValue v => v.Value.ToString(),
+            FloatValue v => v.Value.ToString(System.Globalization.CultureInfo.InvariantCulture),
+            StringValue v => "\"" + v.Value + "\"",
+            BoolValue v => v.Value ? "true" : "false",
+            RuneValue v => "'" + v.Value + "'",
+            BuiltinValue v => v.Name,
+            VarRef v => v.Name + " ^" + v.Depth + "." + v.Slot,
+            string name => name,
+            BytecodeFunction function => "func " + function.Name,
+            VarDecl decl => "var " + decl.Name,
+            StructDecl decl => "struct " + decl.Name,
+            SliceDecl decl => "[]" + decl.ElementType + " " + decl.Name,
+            MatrixDecl decl => "[][]" + decl.ElementType + " " + decl.Name,
+            SliceLiteral literal => "[]" + literal.ElementType + " (" + literal.Elements.Length + ")",
+            StructLiteral literal => literal.StructName + " {" + string.Join(", ", literal.Fields) + "}",
+            FieldCache cache => "." + string.Join(", .", cache.Names),
+            int[] targets => "[" + string.Join(", ", targets.Select(t => "@" + t)) + "]",
+            _ => constant.GetType().Name
+        };
+    }
+}
+
+// Programa compilado: el codigo global corre sobre el frame de las globales y despues se llama a main
+public sealed class BytecodeProgram
+{
+    public readonly BytecodeFunction Init;
+    public readonly FuncDecl? Main;
+    public readonly List<BytecodeFunction> Functions;
+
+    public BytecodeProgram(BytecodeFunction init, FuncDecl? main, List<BytecodeFunction> functions)
+    {
+        Init = init;
+        Main = main;
+        Functions = functions;
+    }
+
+    public string Disassemble()
+    {
+        var text = new StringBuilder();
+        Init.Disassemble(text);
+
+        foreach (var function in Functions)
+        {
+            text.AppendLine();
+            function.Disassemble(text);
+        }
+
+        return text.ToString();
+    }
+}
@@ -0,0 +1,968 @@
+// Compilador del AST (despues de TypeChecker) a la VM de registros (ver Bytecode.cs).
+// Cada variable local ocupa el registro de su slot y los temporales se apilan despues.
+// Igual que en AstCompiler, los slots int, bool y rune de FuncDecl.SlotTypes usan los registros
+// sin caja, y la aritmetica y las comparaciones de int se vuelven instrucciones sobre int de .NET.
+public class BytecodeCompiler
+{
+    // Codigo de la funcion que se esta compilando
+    private sealed class Builder
+    {
+        public readonly List<Instruction> Code = new List<Instruction>();
+        public readonly List<int> Positions = new List<int>();
+        public readonly List<object> Constants = new List<object>();
+        public readonly Dictionary<object, int> ConstantIndex = new Dictionary<object, int>(ReferenceEqualityComparer.Instance);
+
+        // Posicion de cada etiqueta y los saltos que esperan a que se marque
+        public readonly List<int> Labels = new List<int>();
+        public readonly List<(int Instruction, int Label)> Fixups = new List<(int, int)>();
+
+        public readonly FuncDecl? Function;
+        public readonly int FrameSize;
+        // 1 para el valor inicial de un campo de struct, que corre en un frame propio sobre las globales
+        public readonly int DepthOffset;
+
+        public int Top;
+        public int MaxRegisters;
+
+        public int? BreakLabel;
+        public int? ContinueLabel;
+
+        public Builder(FuncDecl? function, int frameSize, int depthOffset)
+        {
+            Function = function;
+            FrameSize = frameSize;
+            DepthOffset = depthOffset;
+            Top = frameSize;
+            MaxRegisters = frameSize;
+        }
+    }
+
+    private readonly List<BytecodeFunction> functions = new List<BytecodeFunction>();
+    private Builder b = new Builder(null, 0, 0);
+
+    public static BytecodeProgram Compile(AstProgram ast)
+    {
+        var compiler = new BytecodeCompiler();
+
+        var init = compiler.Function("init", null, ast.FrameSize, 0, () =>
+        {
+            foreach (var stmt in ast.Declarations)
+            {
+                compiler.Stmt(stmt);
+            }
+
+            compiler.Emit(OpCode.ReturnVoid, 0, 0, 0, 0);
+        });
+
+        var main = ast.Declarations.OfType<FuncDecl>().LastOrDefault(f => f.Name == "main");
+        return new BytecodeProgram(init, main, compiler.functions);
+    }
+
+    private BytecodeFunction Function(string name, FuncDecl? decl, int frameSize, int depthOffset, Action body)
+    {
+        var outer = b;
+        b = new Builder(decl, frameSize, depthOffset);
+
+        try
+        {
+            body();
+
+            var code = b.Code.ToArray();
+            foreach (var (instruction, label) in b.Fixups)
+            {
+                ref var ins = ref code[instruction];
+                int target = b.Labels[label];
+
+                switch (ins.Op)
+                {
+                    case OpCode.Jump:
+                    case OpCode.Loop:
+                        ins.A = target;
+                        break;
+                    case OpCode.JumpIfFalse:
+                    case OpCode.JumpIfTrue:
+                    case OpCode.JumpIfZero:
+                    case OpCode.JumpIfNotZero:
+                        ins.B = target;
+                        break;
+                    default:
+                        ins.C = target;
+                        break;
+                }
+            }
+
+            var function = new BytecodeFunction(name, decl, code, b.Positions.ToArray(), b.Constants.ToArray(), b.MaxRegisters);
+            if (decl != null)
+            {
+                functions.Add(function);
+            }
+
+            return function;
+        }
+        finally
+        {
+            b = outer;
+        }
+    }
+
+
+    // Emision
+    private void Emit(OpCode op, int a, int c1, int c2, int pos)
+    {
+        b.Code.Add(new Instruction(op, a, c1, c2));
+        b.Positions.Add(pos);
+    }
+
+    private void Jump(OpCode op, int a, int c1, int label, int pos)
+    {
+        b.Fixups.Add((b.Code.Count, label));
+        Emit(op, a, c1, 0, pos);
+    }
+
+    private int NewLabel()
+    {
+        b.Labels.Add(-1);
+        return b.Labels.Count - 1;
+    }
+
+    private void Mark(int label)
+    {
+        b.Labels[label] = b.Code.Count;
+    }
+
+    private int Constant(object value)
+    {
+        // Por referencia: 1.0 y 1.00 son iguales como FloatValue pero no se imprimen igual
+        if (!b.ConstantIndex.TryGetValue(value, out int index))
+        {
+            index = b.Constants.Count;
+            b.Constants.Add(value);
+            b.ConstantIndex.Add(value, index);
+        }
+
+        return index;
+    }
+
+    private int Temp()
+    {
+        int register = b.Top++;
+        b.MaxRegisters = Math.Max(b.MaxRegisters, b.Top);
+        return register;
+    }
+
+    // Tipo del slot si vive sin caja: solo las variables locales de la funcion actual
+    private StaticType ScalarType(int depth, int slot)
+    {
+        return depth == 0 && b.Function != null ? b.Function.ScalarType(slot) : StaticType.Unknown;
+    }
+
+    private StaticType ScalarType(VarRef variable)
+    {
+        return ScalarType(variable.Depth, variable.Slot);
+    }
+
+    // Las variables locales se leen directo de su registro; las globales y las de otro frame
+    // pasan por LoadOuter, que revisa que ya esten declaradas
+    private bool IsLocal(VarRef variable)
+    {
+        return variable.Depth == 0 && b.Function != null;
+    }
+
+    // Variable de LoadOuter y StoreOuter, con la profundidad medida desde el frame que corre
+    private VarRef Outer(VarRef variable)
+    {
+        return b.DepthOffset == 0 ? variable : new VarRef(variable.Pos, variable.Name, variable.Depth + b.DepthOffset, variable.Slot);
+    }
+
+    private static OpCode UnboxOp(StaticType type)
+    {
+        return type switch
+        {
+            StaticType.Int => OpCode.UnboxInt,
+            StaticType.Bool => OpCode.UnboxBool,
+            _ => OpCode.UnboxRune
+        };
+    }
+
+    private static OpCode BoxOp(StaticType type)
+    {
+        return type switch
+        {
+            StaticType.Int => OpCode.Box,
+            StaticType.Bool => OpCode.BoxBool,
+            _ => OpCode.BoxRune
+        };
+    }
+
+
+    // Sentencias, los temporales se liberan al terminar cada una
+    private void Stmts(IEnumerable<AstStmt> stmts)
+    {
+        foreach (var stmt in stmts)
+        {
+            Stmt(stmt);
+        }
+    }
+
+    private void Stmt(AstStmt stmt)
+    {
+        int top = b.Top;
+
+        try
+        {
+            CompileStmt(stmt);
+        }
+        finally
+        {
+            b.Top = top;
+        }
+    }
+
+    private void CompileStmt(AstStmt stmt)
+    {
+        switch (stmt)
+        {
+            case ExprStmt s:
+                Effect(s.Expr);
+                break;
+            case VarDecl s:
+                CompileVarDecl(s);
+                break;
+            case Block s:
+                Stmts(s.Body);
+                break;
+            case IfStmt s:
+            {
+                var otherwise = NewLabel();
+                var end = NewLabel();
+
+                Branch(s.Condition, false, otherwise, s.Pos);
+                Stmt(s.Then);
+
+                if (s.Else != null)
+                {
+                    Jump(OpCode.Jump, 0, 0, end, s.Pos);
+                    Mark(otherwise);
+                    Stmt(s.Else);
+                }
+                else
+                {
+                    Mark(otherwise);
+                }
+
+                Mark(end);
+                break;
+            }
+            case SwitchStmt s:
+                CompileSwitch(s);
+                break;
+            case ForStmt s:
+            {
+                Stmt(s.Init);
+                Loop(s.Pos, cont =>
+                {
+                    Stmt(s.Body);
+                    Mark(cont);
+                    Effect(s.Update);
+                }, s.Condition);
+                break;
+            }
+            case WhileStmt s:
+                Loop(s.Pos, cont =>
+                {
+                    Stmt(s.Body);
+                    Mark(cont);
+                }, s.Condition);
+                break;
+            case ForRangeStmt s:
+                CompileForRange(s);
+                break;
+            case BreakStmt s:
+                if (b.BreakLabel is int breakLabel)
+                {
+                    Jump(OpCode.Jump, 0, 0, breakLabel, s.Pos);
+                }
+                else
+                {
+                    Emit(OpCode.Raise, 0, 0, 0, s.Pos);
+                }
+                break;
+            case ContinueStmt s:
+                if (b.ContinueLabel is int continueLabel)
+                {
+                    Jump(OpCode.Jump, 0, 0, continueLabel, s.Pos);
+                }
+                else
+                {
+                    Emit(OpCode.Raise, 1, 0, 0, s.Pos);
+                }
+                break;
+            case ReturnStmt s:
+            {
+                if (b.Function == null)
+                {
+                    // return fuera de una funcion, igual que en los otros motores
+                    int value = s.Value == null ? Const(new VoidValue(), s.Pos) : Value(s.Value);
+                    Emit(OpCode.Raise, 2, value, 0, s.Pos);
+                }
+                else if (s.Value == null)
+                {
+                    Emit(OpCode.ReturnVoid, 0, 0, 0, s.Pos);
+                }
+                else
+                {
+                    Emit(OpCode.Return, Value(s.Value), 0, 0, s.Pos);
+                }
+                break;
+            }
+            case FuncDecl s:
+                Emit(OpCode.DeclareFunc, s.Slot, Constant(CompileFunction(s)), 0, s.Pos);
+                break;
+            case StructDecl s:
+            {
+                // Los valores iniciales de los campos se evaluan sobre el frame global
+                var inits = s.Fields
+                    .Select(field => field.Init == null ? null : Function(s.Name + "." + field.Name, null, 0, 1, () =>
+                    {
+                        Emit(OpCode.Return, Value(field.Init!), 0, 0, field.Pos);
+                    }))
+                    .ToArray();
+                Emit(OpCode.DeclareStruct, s.Slot, Constant(s), Constant(inits), s.Pos);
+                break;
+            }
+            case SliceDecl s:
+                Emit(OpCode.DeclareSlice, s.Slot, Constant(s), 0, s.Pos);
+                break;
+            case MatrixDecl s:
+            {
+                int start = Consecutive(s.Rows.SelectMany(row => row).ToArray());
+                Emit(OpCode.DeclareMatrix, s.Slot, Constant(s), start, s.Pos);
+                break;
+            }
+            default:
+                throw new SemanticError("Error Semantico: sentencia no soportada", stmt.Pos);
+        }
+    }
+
+    private BytecodeFunction CompileFunction(FuncDecl decl)
+    {
+        return Function(decl.Name, decl, decl.FrameSize, 0, () =>
+        {
+            // Los argumentos llegan en Slots ya validados, los int, bool y rune pasan a Scalars
+            for (int i = 0; i < decl.Params.Length; i++)
+            {
+                var type = decl.ScalarType(i);
+                if (type != StaticType.Unknown)
+                {
+                    Emit(UnboxOp(type), i, i, Constant(decl.Params[i]), decl.Pos);
+                }
+            }
+
+            Stmts(decl.Body);
+            Emit(OpCode.ReturnVoid, 0, 0, 0, decl.Pos);
+        });
+    }
+
+    private void CompileVarDecl(VarDecl s)
+    {
+        var scalar = ScalarType(0, s.Slot);
+
+        // x := e o var x int = e con e int: no hace falta crear el IntValue
+        if (scalar == StaticType.Int && s.Init != null && IsInt(s.Init) && (s.Type == null || s.Type == "int"))
+        {
+            if (s.Type != null)
+            {
+                Emit(OpCode.DeclareSymbol, 0, Constant(s), 0, s.Pos);
+            }
+
+            IntInto(s.Init, s.Slot);
+            return;
+        }
+
+        int init = s.Init == null ? -1 : Value(s.Init);
+
+        if (scalar != StaticType.Unknown)
+        {
+            int declared = Temp();
+            Emit(OpCode.DeclareVar, declared, Constant(s), init, s.Pos);
+            Emit(UnboxOp(scalar), s.Slot, declared, Constant(s.Name), s.Pos);
+        }
+        else
+        {
+            Emit(OpCode.DeclareVar, s.Slot, Constant(s), init, s.Pos);
+        }
+    }
+
+    // Ciclo con la condicion al inicio; break sale y continue salta a la etiqueta que marca el cuerpo.
+    // El salto de regreso cuenta un paso del sandbox
+    private void Loop(int pos, Action<int> body, AstExpr? condition)
+    {
+        var top = NewLabel();
+        var end = NewLabel();
+        var cont = NewLabel();
+
+        var previousBreak = b.BreakLabel;
+        var previousContinue = b.ContinueLabel;
+        b.BreakLabel = end;
+        b.ContinueLabel = cont;
+
+        try
+        {
+            Mark(top);
+
+            if (condition != null)
+            {
+                Branch(condition, false, end, pos);
+            }
+
+            body(cont);
+            Jump(OpCode.Loop, 0, 0, top, pos);
+            Mark(end);
+        }
+        finally
+        {
+            b.BreakLabel = previousBreak;
+            b.ContinueLabel = previousContinue;
+        }
+    }
+
+    private void CompileForRange(ForRangeStmt s)
+    {
+        // El indice va en el registro siguiente al slice, RangeItem y RangeInt lo leen de ahi
+        int items = Temp();
+        int i = Temp();
+        int count = Temp();
+
+        Emit(OpCode.Range, items, Value(s.Source), 0, s.Pos);
+        Emit(OpCode.LoadInt, i, 0, 0, s.Pos);
+
+        var top = NewLabel();
+        var end = NewLabel();
+        var cont = NewLabel();
+
+        var previousBreak = b.BreakLabel;
+        var previousContinue = b.ContinueLabel;
+        b.BreakLabel = end;
+        b.ContinueLabel = cont;
+
+        try
+        {
+            // El largo se vuelve a leer en cada vuelta, como en los otros motores
+            Mark(top);
+            Emit(OpCode.LenInt, count, items, 0, s.Pos);
+            Jump(OpCode.JumpGeInt, i, count, end, s.Pos);
+
+            if (ScalarType(0, s.IndexSlot) == StaticType.Int)
+            {
+                Emit(OpCode.MoveInt, s.IndexSlot, i, 0, s.Pos);
+            }
+            else
+            {
+                Emit(OpCode.Box, s.IndexSlot, i, 0, s.Pos);
+            }
+
+            var valueType = ScalarType(0, s.ValueSlot);
+            if (valueType == StaticType.Int)
+            {
+                Emit(OpCode.RangeInt, s.ValueSlot, items, Constant(s.ValueName), s.Pos);
+            }
+            else if (valueType != StaticType.Unknown)
+            {
+                int value = Temp();
+                Emit(OpCode.RangeItem, value, items, 0, s.Pos);
+                Emit(UnboxOp(valueType), s.ValueSlot, value, Constant(s.ValueName), s.Pos);
+            }
+            else
+            {
+                Emit(OpCode.RangeItem, s.ValueSlot, items, 0, s.Pos);
+            }
+
+            Stmt(s.Body);
+            Mark(cont);
+            Emit(OpCode.AddIntConst, i, i, 1, s.Pos);
+            Jump(OpCode.Loop, 0, 0, top, s.Pos);
+            Mark(end);
+        }
+        finally
+        {
+            b.BreakLabel = previousBreak;
+            b.ContinueLabel = previousContinue;
+        }
+    }
+
+    private void CompileSwitch(SwitchStmt s)
+    {
+        int subject = Temp();
+        Into(s.Subject, subject);
+
+        var end = NewLabel();
+        var cases = s.Cases.Select(_ => NewLabel()).ToArray();
+        var otherwise = s.Default != null ? NewLabel() : end;
+
+        if (s.Table != null)
+        {
+            // Case literales: la tabla da el case y Switch salta directo a su codigo
+            var targets = new int[cases.Length + 1];
+            Emit(OpCode.Switch, subject, Constant(s.Table), Constant(targets), s.Pos);
+            CaseBodies(s, cases, otherwise, end);
+
+            for (int i = 0; i < cases.Length; i++)
+            {
+                targets[i] = b.Labels[cases[i]];
+            }
+            targets[cases.Length] = b.Labels[otherwise];
+            return;
+        }
+
+        // Se compara en orden y gana el primer case igual al sujeto
+        for (int i = 0; i < cases.Length; i++)
+        {
+            int top = b.Top;
+            Jump(OpCode.JumpIfEqual, subject, Value(s.Cases[i].Value), cases[i], s.Pos);
+            b.Top = top;
+        }
+        Jump(OpCode.Jump, 0, 0, otherwise, s.Pos);
+
+        CaseBodies(s, cases, otherwise, end);
+    }
+
+    private void CaseBodies(SwitchStmt s, int[] cases, int otherwise, int end)
+    {
+        // break dentro de un case sale del switch, continue sigue siendo del ciclo
+        var previousBreak = b.BreakLabel;
+        b.BreakLabel = end;
+
+        try
+        {
+            for (int i = 0; i < cases.Length; i++)
+            {
+                Mark(cases[i]);
+                Stmts(s.Cases[i].Body);
+                Jump(OpCode.Jump, 0, 0, end, s.Pos);
+            }
+
+            if (s.Default != null)
+            {
+                Mark(otherwise);
+                Stmts(s.Default);
+            }
+
+            Mark(end);
+        }
+        finally
+        {
+            b.BreakLabel = previousBreak;
+        }
+    }
+
+
+    // Condiciones: salta a label cuando la condicion vale jumpWhen
+    private void Branch(AstExpr condition, bool jumpWhen, int label, int pos)
+    {
+        switch (condition)
+        {
+            case BoolLiteral e:
+                if (e.Value == jumpWhen)
+                {
+                    Jump(OpCode.Jump, 0, 0, label, pos);
+                }
+                return;
+            case IntBinary e when e.Op.IsComparison():
+            {
+                var op = jumpWhen ? e.Op : Negated(e.Op);
+                int left = Stable(Int(e.Left), e.Right, true);
+                Jump(OpCode.JumpLtInt + (op - BinaryOp.Lt), left, Int(e.Right), label, pos);
+                return;
+            }
+            case VarRef e when ScalarType(e) == StaticType.Bool:
+                Jump(jumpWhen ? OpCode.JumpIfNotZero : OpCode.JumpIfZero, e.Slot, 0, label, pos);
+                return;
+        }
+
+        int top = b.Top;
+        Jump(jumpWhen ? OpCode.JumpIfTrue : OpCode.JumpIfFalse, Value(condition), 0, label, pos);
+        b.Top = top;
+    }
+
+    private static BinaryOp Negated(BinaryOp op)
+    {
+        return op switch
+        {
+            BinaryOp.Lt => BinaryOp.Ge,
+            BinaryOp.Le => BinaryOp.Gt,
+            BinaryOp.Gt => BinaryOp.Le,
+            BinaryOp.Ge => BinaryOp.Lt,
+            BinaryOp.Eq => BinaryOp.Ne,
+            _ => BinaryOp.Eq
+        };
+    }
+
+
+    // Expresion usada como sentencia: las asignaciones a slots int sin caja no crean ValueWrapper
+    private void Effect(AstExpr expr)
+    {
+        switch (expr)
+        {
+            case Assign { Target: VarRef target } e when ScalarType(target) == StaticType.Int && IsInt(e.Value):
+                IntInto(e.Value, target.Slot);
+                return;
+            case Assign { Target: VarRef target } e when ScalarType(target) != StaticType.Unknown:
+                Emit(UnboxOp(ScalarType(target)), target.Slot, Value(e.Value), Constant(target.Name), e.Pos);
+                return;
+            case CompoundAssign e when ScalarType(e.Target) == StaticType.Int && IsInt(e.Value) && (e.Op == BinaryOp.Add || e.Op == BinaryOp.Sub):
+            {
+                if (e.Value is IntLiteral literal)
+                {
+                    Emit(OpCode.AddIntConst, e.Target.Slot, e.Target.Slot, e.Op == BinaryOp.Add ? literal.Value : -literal.Value, e.Pos);
+                }
+                else
+                {
+                    Emit(e.Op == BinaryOp.Add ? OpCode.AddInt : OpCode.SubInt, e.Target.Slot, e.Target.Slot, Int(e.Value), e.Pos);
+                }
+                return;
+            }
+            case IncDec e when ScalarType(e.Target) == StaticType.Int:
+                Emit(OpCode.AddIntConst, e.Target.Slot, e.Target.Slot, e.Delta, e.Pos);
+                return;
+        }
+
+        Into(expr, Temp());
+    }
+
+    // Expresiones que IntInto compila sin pasar por un ValueWrapper
+    private bool IsInt(AstExpr expr)
+    {
+        return expr is IntLiteral
+            || expr is IntBinary binary && !binary.Op.IsComparison()
+            || expr is VarRef variable && ScalarType(variable) == StaticType.Int;
+    }
+
+    // Sin asignaciones ni llamadas: evaluarla no cambia ninguna variable
+    private static bool Pure(AstExpr expr)
+    {
+        return expr switch
+        {
+            IntLiteral or FloatLiteral or StringLiteral or BoolLiteral or RuneLiteral or NilLiteral or VarRef or BuiltinRef => true,
+            Binary e => Pure(e.Left) && Pure(e.Right),
+            IntBinary e => Pure(e.Left) && Pure(e.Right),
+            FloatBinary e => Pure(e.Left) && Pure(e.Right),
+            IntToFloat e => Pure(e.Operand),
+            Negate e => Pure(e.Operand),
+            Not e => Pure(e.Operand),
+            IndexExpr e => Pure(e.Index),
+            MatrixIndexExpr e => Pure(e.Row) && Pure(e.Column),
+            FieldGet e => Pure(e.Target),
+            _ => false
+        };
+    }
+
+    // Si el operando quedo en el registro de una variable y lo que sigue puede cambiarla, se copia
+    private int Stable(int register, AstExpr later, bool scalar)
+    {
+        if (register >= b.FrameSize || Pure(later))
+        {
+            return register;
+        }
+
+        int copy = Temp();
+        Emit(scalar ? OpCode.MoveInt : OpCode.Move, copy, register, 0, later.Pos);
+        return copy;
+    }
+
+    // Registro con el valor, el de la variable si es local
+    private int Value(AstExpr expr)
+    {
+        if (expr is VarRef variable && IsLocal(variable) && ScalarType(variable) == StaticType.Unknown)
+        {
+            return variable.Slot;
+        }
+
+        int register = Temp();
+        Into(expr, register);
+        return register;
+    }
+
+    private int Const(ValueWrapper value, int pos)
+    {
+        int register = Temp();
+        Emit(OpCode.LoadConst, register, Constant(value), 0, pos);
+        return register;
+    }
+
+    // Evalua las expresiones en registros seguidos y devuelve el primero
+    private int Consecutive(AstExpr[] exprs)
+    {
+        int start = b.Top;
+        var registers = exprs.Select(_ => Temp()).ToArray();
+
+        for (int i = 0; i < exprs.Length; i++)
+        {
+            Into(exprs[i], registers[i]);
+        }
+
+        return start;
+    }
+
+    private void Into(AstExpr expr, int dest)
+    {
+        int pos = expr.Pos;
+
+        switch (expr)
+        {
+            case IntLiteral e:
+                Emit(OpCode.LoadConst, dest, Constant(new IntValue(e.Value)), 0, pos);
+                break;
+            case FloatLiteral e:
+                Emit(OpCode.LoadConst, dest, Constant(new FloatValue(e.Value)), 0, pos);
+                break;
+            case StringLiteral e:
+                Emit(OpCode.LoadConst, dest, Constant(new StringValue(e.Value)), 0, pos);
+                break;
+            case BoolLiteral e:
+                Emit(OpCode.LoadConst, dest, Constant(AstInterpreter.Boolean(e.Value)), 0, pos);
+                break;
+            case RuneLiteral e:
+                Emit(OpCode.LoadConst, dest, Constant(new RuneValue(e.Value)), 0, pos);
+                break;
+            case NilLiteral:
+                Emit(OpCode.LoadConst, dest, Constant(new VoidValue()), 0, pos);
+                break;
+            case BuiltinRef e:
+                Emit(OpCode.LoadConst, dest, Constant(new BuiltinValue(e.Name)), 0, pos);
+                break;
+            case VarRef e:
+            {
+                var scalar = ScalarType(e);
+                if (scalar != StaticType.Unknown)
+                {
+                    Emit(BoxOp(scalar), dest, e.Slot, 0, pos);
+                }
+                else if (IsLocal(e))
+                {
+                    Emit(OpCode.Move, dest, e.Slot, 0, pos);
+                }
+                else
+                {
+                    Emit(OpCode.LoadOuter, dest, Constant(Outer(e)), 0, pos);
+                }
+                break;
+            }
+            case Binary e when e.Op == BinaryOp.And || e.Op == BinaryOp.Or:
+            {
+                // && y || no evaluan el lado derecho si no hace falta
+                var end = NewLabel();
+                Into(e.Left, dest);
+                Emit(OpCode.RequireBool, dest, 0, 0, pos);
+                Jump(e.Op == BinaryOp.And ? OpCode.JumpIfFalse : OpCode.JumpIfTrue, dest, 0, end, pos);
+                Into(e.Right, dest);
+                Emit(OpCode.RequireBool, dest, 0, 0, pos);
+                Mark(end);
+                break;
+            }
+            case IntBinary e when e.Op.IsComparison():
+            {
+                var yes = NewLabel();
+                var end = NewLabel();
+                Branch(e, true, yes, pos);
+                Emit(OpCode.LoadConst, dest, Constant(AstInterpreter.Boolean(false)), 0, pos);
+                Jump(OpCode.Jump, 0, 0, end, pos);
+                Mark(yes);
+                Emit(OpCode.LoadConst, dest, Constant(AstInterpreter.Boolean(true)), 0, pos);
+                Mark(end);
+                break;
+            }
+            case IntBinary e:
+            {
+                int value = Temp();
+                IntInto(e, value);
+                Emit(OpCode.Box, dest, value, 0, pos);
+                break;
+            }
+            case IntToFloat e:
+                Emit(OpCode.IntToFloat, dest, Value(e.Operand), 0, pos);
+                break;
+            case FloatBinary e:
+                Arithmetic(e.Op, e.Left, e.Right, dest, pos);
+                break;
+            case Binary e:
+                Arithmetic(e.Op, e.Left, e.Right, dest, pos);
+                break;
+            case Negate e:
+                Emit(OpCode.Negate, dest, Value(e.Operand), 0, pos);
+                break;
+            case Not e:
+                Emit(OpCode.Not, dest, Value(e.Operand), 0, pos);
+                break;
+            case Assign e:
+                CompileAssign(e, dest);
+                break;
+            case CompoundAssign e:
+            {
+                int value = Value(e.Value);
+                int current = Temp();
+                Into(e.Target, current);
+                Emit(e.Op == BinaryOp.Sub ? OpCode.SubAssign : OpCode.AddAssign, dest, current, value, pos);
+                Store(e.Target, dest);
+                break;
+            }
+            case IncDec e:
+            {
+                int current = Temp();
+                Into(e.Target, current);
+                Emit(OpCode.IncDec, dest, current, e.Delta, pos);
+                Store(e.Target, dest);
+                break;
+            }
+            case SliceLiteral e:
+                Emit(OpCode.NewSlice, dest, Constant(e), Consecutive(e.Elements), pos);
+                break;
+            case IndexExpr e:
+            {
+                int target = Stable(Value(e.Array), e.Index, false);
+                Emit(OpCode.Index, dest, target, Value(e.Index), pos);
+                break;
+            }
+            case MatrixIndexExpr e:
+            {
+                int target = Value(e.Matrix);
+                Emit(OpCode.MatrixIndex, dest, target, Consecutive(new[] { e.Row, e.Column }), pos);
+                break;
+            }
+            case StructLiteral e:
+                Emit(OpCode.NewStruct, dest, Constant(e), Consecutive(e.Values.Prepend(e.Type).ToArray()), pos);
+                break;
+            case Call { Callee: BuiltinRef { Name: "len" }, Args.Length: 1 } e:
+                Emit(OpCode.Len, dest, Value(e.Args[0]), 0, pos);
+                break;
+            case Call { Callee: BuiltinRef { Name: "append" }, Args.Length: 2 } e:
+            {
+                int target = Stable(Value(e.Args[0]), e.Args[1], false);
+                Emit(OpCode.Append, dest, target, Value(e.Args[1]), pos);
+                break;
+            }
+            case Call e:
+                Emit(OpCode.Call, dest, Consecutive(e.Args.Prepend(e.Callee).ToArray()), e.Args.Length, pos);
+                break;
+            case FieldGet e:
+                Emit(OpCode.GetField, dest, Value(e.Target), Constant(e.Cache), pos);
+                break;
+            default:
+                throw new SemanticError("Error Semantico: expresion no soportada", pos);
+        }
+    }
+
+    private void Arithmetic(BinaryOp op, AstExpr left, AstExpr right, int dest, int pos)
+    {
+        int l = Stable(Value(left), right, false);
+        Emit(OpCode.Add + (op - BinaryOp.Add), dest, l, Value(right), pos);
+    }
+
+    // El valor queda en dest, como en AstCompiler se evalua el valor antes que el destino
+    private void CompileAssign(Assign e, int dest)
+    {
+        Into(e.Value, dest);
+
+        switch (e.Target)
+        {
+            case VarRef target:
+            {
+                var scalar = ScalarType(target);
+                if (scalar != StaticType.Unknown)
+                {
+                    Emit(UnboxOp(scalar), target.Slot, dest, Constant(target.Name), e.Pos);
+                    break;
+                }
+
+                int current = Value(target);
+                Emit(OpCode.CheckAssign, dest, current, Constant(target.Name), e.Pos);
+                Store(target, dest);
+                break;
+            }
+            case IndexExpr target:
+            {
+                int array = Stable(Value(target.Array), target.Index, false);
+                Emit(OpCode.SetIndex, dest, array, Value(target.Index), e.Pos);
+                break;
+            }
+            case MatrixIndexExpr target:
+            {
+                int matrix = Value(target.Matrix);
+                Emit(OpCode.SetMatrix, dest, matrix, Consecutive(new[] { target.Row, target.Column }), e.Pos);
+                break;
+            }
+            case FieldGet target:
+                Emit(OpCode.SetField, dest, Value(target.Target), Constant(target.Cache), e.Pos);
+                break;
+            default:
+                throw new SemanticError("Error Semantico: Asignacion Invalida", e.Pos);
+        }
+    }
+
+    private void Store(VarRef target, int value)
+    {
+        var scalar = ScalarType(target);
+        if (scalar != StaticType.Unknown)
+        {
+            Emit(UnboxOp(scalar), target.Slot, value, Constant(target.Name), target.Pos);
+        }
+        else if (IsLocal(target))
+        {
+            Emit(OpCode.Move, target.Slot, value, 0, target.Pos);
+        }
+        else
+        {
+            Emit(OpCode.StoreOuter, value, Constant(Outer(target)), 0, target.Pos);
+        }
+    }
+
+
+    // Expresiones int sin caja
+    private int Int(AstExpr expr)
+    {
+        if (expr is VarRef variable && ScalarType(variable) == StaticType.Int)
+        {
+            return variable.Slot;
+        }
+
+        int register = Temp();
+        IntInto(expr, register);
+        return register;
+    }
+
+    private void IntInto(AstExpr expr, int dest)
+    {
+        int pos = expr.Pos;
+
+        switch (expr)
+        {
+            case IntLiteral e:
+                Emit(OpCode.LoadInt, dest, e.Value, 0, pos);
+                break;
+            case VarRef e when ScalarType(e) == StaticType.Int:
+                Emit(OpCode.MoveInt, dest, e.Slot, 0, pos);
+                break;
+            case IntBinary e when !e.Op.IsComparison():
+            {
+                if (e.Op == BinaryOp.Add && e.Right is IntLiteral constant)
+                {
+                    Emit(OpCode.AddIntConst, dest, Int(e.Left), constant.Value, pos);
+                    break;
+                }
+
+                int left = Stable(Int(e.Left), e.Right, true);
+                Emit(OpCode.AddInt + (e.Op - BinaryOp.Add), dest, left, Int(e.Right), pos);
+                break;
+            }
+            // Lectura directa del int[] del slice
+            case IndexExpr e:
+            {
+                int target = Stable(Value(e.Array), e.Index, false);
+                Emit(OpCode.IndexInt, dest, target, Int(e.Index), pos);
+                break;
+            }
+            default:
+                Emit(OpCode.UnboxInt, dest, Value(expr), -1, pos);
+                break;
+        }
+    }
+}
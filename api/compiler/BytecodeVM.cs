@@ -0,0 +1,547 @@
+using Proyecto1_OLC2;
+
+// Maquina virtual de registros para el codigo de BytecodeCompiler.
+// Cada llamada corre en un solo ciclo con un switch sobre el opcode; los registros de la funcion
+// son los Slots y Scalars de su Frame, asi los closures ven las variables igual que en los otros motores.
+// Los errores y los resultados son los mismos que los de AstInterpreter y CompiledProgram.
+public class BytecodeVM
+{
+    public SymbolTable symbolTable = new SymbolTable();
+
+    private static readonly ValueWrapper defaultVoid = new VoidValue();
+
+    private OutputSink output = new StringOutputSink();
+    private readonly BytecodeProgram program;
+    private readonly Dictionary<StructDecl, BytecodeFunction?[]> structInits = new Dictionary<StructDecl, BytecodeFunction?[]>();
+    private readonly Frame globals;
+
+    public string Output => output.Text;
+
+    public OutputSink Sink
+    {
+        get => output;
+        set => output = value;
+    }
+
+    // Limites del sandbox, Loop da un paso en cada vuelta de ciclo
+    public ExecutionBudget Budget { get; set; } = ExecutionBudget.Unlimited();
+
+    public BytecodeVM(BytecodeProgram program)
+    {
+        this.program = program;
+        globals = new Frame(program.Init.RegisterCount, null, true);
+    }
+
+    public void Run()
+    {
+        var previous = Budget.Activate();
+        try
+        {
+            Execute(program.Init, globals);
+
+            var main = program.Main;
+            if (main == null || globals.Slots[main.Slot] is not VmClosureValue mainFunc)
+            {
+                throw new SemanticError("Error: No se encontró la función 'main'.");
+            }
+
+            Invoke(mainFunc, Array.Empty<ValueWrapper?>(), 0, 0, main.Pos);
+        }
+        finally
+        {
+            ExecutionBudget.Restore(previous);
+        }
+    }
+
+    private void AddSymbol(string id, string tipo, string tipoDato, string ambito, int pos)
+    {
+        symbolTable.AddSymbol(new Symbol(id, tipo, tipoDato, ambito, SourcePos.Line(pos), SourcePos.Column(pos)));
+    }
+
+
+    // Ciclo de ejecucion
+    private ValueWrapper Execute(BytecodeFunction function, Frame frame)
+    {
+        var code = function.Code;
+        var k = function.Constants;
+        var positions = function.Positions;
+        var r = frame.Slots;
+        var n = frame.Scalars;
+        int pc = 0;
+
+        while (true)
+        {
+            var ins = code[pc++];
+
+            switch (ins.Op)
+            {
+                case OpCode.LoadConst:
+                    r[ins.A] = (ValueWrapper)k[ins.B];
+                    break;
+                case OpCode.LoadInt:
+                    n[ins.A] = ins.B;
+                    break;
+                case OpCode.Move:
+                    r[ins.A] = r[ins.B];
+                    break;
+                case OpCode.MoveInt:
+                    n[ins.A] = n[ins.B];
+                    break;
+                case OpCode.LoadOuter:
+                {
+                    // Un slot vacio es una global que se usa antes de su declaracion
+                    var variable = (VarRef)k[ins.B];
+                    r[ins.A] = Outer(frame, variable.Depth).Slots[variable.Slot]
+                        ?? throw new SemanticError("Variable " + variable.Name + " no encontrada", variable.Pos);
+                    break;
+                }
+                case OpCode.StoreOuter:
+                {
+                    var variable = (VarRef)k[ins.B];
+                    Outer(frame, variable.Depth).Slots[variable.Slot] = r[ins.A];
+                    break;
+                }
+                case OpCode.Box:
+                    r[ins.A] = new IntValue((int)n[ins.B]);
+                    break;
+                case OpCode.BoxBool:
+                    r[ins.A] = AstInterpreter.Boolean(n[ins.B] != 0);
+                    break;
+                case OpCode.BoxRune:
+                    r[ins.A] = new RuneValue((char)n[ins.B]);
+                    break;
+                case OpCode.UnboxInt:
+                    // Sin nombre el tipo ya lo garantiza TypeChecker
+                    n[ins.A] = ins.C < 0 ? AstInterpreter.AsInt(r[ins.B]!, positions[pc - 1])
+                        : CompiledProgram.Unbox(r[ins.B]!, StaticType.Int, (string)k[ins.C], positions[pc - 1]);
+                    break;
+                case OpCode.UnboxBool:
+                    n[ins.A] = CompiledProgram.Unbox(r[ins.B]!, StaticType.Bool, (string)k[ins.C], positions[pc - 1]);
+                    break;
+                case OpCode.UnboxRune:
+                    n[ins.A] = CompiledProgram.Unbox(r[ins.B]!, StaticType.Rune, (string)k[ins.C], positions[pc - 1]);
+                    break;
+                case OpCode.IntToFloat:
+                    r[ins.A] = new FloatValue(AstInterpreter.AsInt(r[ins.B]!, positions[pc - 1]));
+                    break;
+
+                case OpCode.Add:
+                case OpCode.Sub:
+                case OpCode.Mul:
+                case OpCode.Div:
+                case OpCode.Mod:
+                case OpCode.Lt:
+                case OpCode.Le:
+                case OpCode.Gt:
+                case OpCode.Ge:
+                case OpCode.Eq:
+                case OpCode.Ne:
+                    r[ins.A] = AstInterpreter.BinaryOperation((BinaryOp)(ins.Op - OpCode.Add), r[ins.B]!, r[ins.C]!, positions[pc - 1]);
+                    break;
+                case OpCode.Negate:
+                    r[ins.A] = CompiledProgram.Negate(r[ins.B]!, positions[pc - 1]);
+                    break;
+                case OpCode.Not:
+                    r[ins.A] = CompiledProgram.Not(r[ins.B]!, positions[pc - 1]);
+                    break;
+                case OpCode.AddAssign:
+                    r[ins.A] = CompiledProgram.Compound(BinaryOp.Add, r[ins.B]!, r[ins.C]!, positions[pc - 1]);
+                    break;
+                case OpCode.SubAssign:
+                    r[ins.A] = CompiledProgram.Compound(BinaryOp.Sub, r[ins.B]!, r[ins.C]!, positions[pc - 1]);
+                    break;
+                case OpCode.IncDec:
+                    r[ins.A] = CompiledProgram.IncDec(r[ins.B]!, ins.C, positions[pc - 1]);
+                    break;
+                case OpCode.CheckAssign:
+                    CompiledProgram.CheckAssign(r[ins.B]!, r[ins.A]!, (string)k[ins.C], positions[pc - 1]);
+                    break;
+
+                case OpCode.AddInt:
+                    n[ins.A] = (int)n[ins.B] + (int)n[ins.C];
+                    break;
+                case OpCode.SubInt:
+                    n[ins.A] = (int)n[ins.B] - (int)n[ins.C];
+                    break;
+                case OpCode.MulInt:
+                    n[ins.A] = (int)n[ins.B] * (int)n[ins.C];
+                    break;
+                case OpCode.DivInt:
+                    n[ins.A] = AstInterpreter.IntArithmetic(BinaryOp.Div, (int)n[ins.B], (int)n[ins.C], positions[pc - 1]);
+                    break;
+                case OpCode.ModInt:
+                    n[ins.A] = AstInterpreter.IntArithmetic(BinaryOp.Mod, (int)n[ins.B], (int)n[ins.C], positions[pc - 1]);
+                    break;
+                case OpCode.AddIntConst:
+                    n[ins.A] = (int)n[ins.B] + ins.C;
+                    break;
+
+                case OpCode.Jump:
+                    pc = ins.A;
+                    break;
+                case OpCode.Loop:
+                    Budget.Step(positions[pc - 1]);
+                    pc = ins.A;
+                    break;
+                case OpCode.JumpIfFalse:
+                    if (!CompiledProgram.Truth(r[ins.A]!, positions[pc - 1]))
+                    {
+                        pc = ins.B;
+                    }
+                    break;
+                case OpCode.JumpIfTrue:
+                    if (CompiledProgram.Truth(r[ins.A]!, positions[pc - 1]))
+                    {
+                        pc = ins.B;
+                    }
+                    break;
+                case OpCode.JumpIfZero:
+                    if (n[ins.A] == 0)
+                    {
+                        pc = ins.B;
+                    }
+                    break;
+                case OpCode.JumpIfNotZero:
+                    if (n[ins.A] != 0)
+                    {
+                        pc = ins.B;
+                    }
+                    break;
+                case OpCode.JumpIfEqual:
+                    if (r[ins.A]!.Equals(r[ins.B]))
+                    {
+                        pc = ins.C;
+                    }
+                    break;
+                // Los int se guardan extendidos a long, compararlos como long da lo mismo
+                case OpCode.JumpLtInt:
+                    if (n[ins.A] < n[ins.B])
+                    {
+                        pc = ins.C;
+                    }
+                    break;
+                case OpCode.JumpLeInt:
+                    if (n[ins.A] <= n[ins.B])
+                    {
+                        pc = ins.C;
+                    }
+                    break;
+                case OpCode.JumpGtInt:
+                    if (n[ins.A] > n[ins.B])
+                    {
+                        pc = ins.C;
+                    }
+                    break;
+                case OpCode.JumpGeInt:
+                    if (n[ins.A] >= n[ins.B])
+                    {
+                        pc = ins.C;
+                    }
+                    break;
+                case OpCode.JumpEqInt:
+                    if (n[ins.A] == n[ins.B])
+                    {
+                        pc = ins.C;
+                    }
+                    break;
+                case OpCode.JumpNeInt:
+                    if (n[ins.A] != n[ins.B])
+                    {
+                        pc = ins.C;
+                    }
+                    break;
+                case OpCode.RequireBool:
+                    CompiledProgram.RequireBool(r[ins.A]!, positions[pc - 1]);
+                    break;
+                case OpCode.Switch:
+                {
+                    var targets = (int[])k[ins.C];
+                    int index = ((JumpTable)k[ins.B]).Find(r[ins.A]!);
+                    pc = targets[index < 0 ? targets.Length - 1 : index];
+                    break;
+                }
+
+                case OpCode.Call:
+                    r[ins.A] = Call(r, ins.B, ins.C, positions[pc - 1]);
+                    break;
+                case OpCode.Return:
+                    return r[ins.A]!;
+                case OpCode.ReturnVoid:
+                    return defaultVoid;
+                case OpCode.Raise:
+                    throw ins.A switch
+                    {
+                        0 => (Exception)new BreakException(),
+                        1 => new ContinueException(),
+                        _ => new ReturnException(r[ins.B]!)
+                    };
+
+                case OpCode.Index:
+                    r[ins.A] = CompiledProgram.Index(r[ins.C]!, r[ins.B]!, positions[pc - 1]);
+                    break;
+                case OpCode.IndexInt:
+                    n[ins.A] = AstInterpreter.IntAt(r[ins.B]!, (int)n[ins.C], positions[pc - 1]);
+                    break;
+                case OpCode.MatrixIndex:
+                    r[ins.A] = CompiledProgram.MatrixIndex(r[ins.C]!, r[ins.C + 1]!, r[ins.B]!, positions[pc - 1]);
+                    break;
+                case OpCode.SetIndex:
+                    CompiledProgram.SetIndex(r[ins.A]!, r[ins.B]!, r[ins.C]!, positions[pc - 1]);
+                    break;
+                case OpCode.SetMatrix:
+                    CompiledProgram.SetMatrix(r[ins.A]!, r[ins.B]!, r[ins.C]!, r[ins.C + 1]!, positions[pc - 1]);
+                    break;
+                case OpCode.GetField:
+                    r[ins.A] = AstInterpreter.GetField(r[ins.B]!, (FieldCache)k[ins.C], positions[pc - 1]);
+                    break;
+                case OpCode.SetField:
+                    CompiledProgram.SetField(r[ins.A]!, r[ins.B]!, (FieldCache)k[ins.C], positions[pc - 1]);
+                    break;
+                case OpCode.NewSlice:
+                {
+                    var literal = (SliceLiteral)k[ins.B];
+                    r[ins.A] = AstInterpreter.NewSlice(literal.ElementType, Registers(r, ins.C, literal.Elements.Length), positions[pc - 1]);
+                    break;
+                }
+                case OpCode.NewStruct:
+                {
+                    var literal = (StructLiteral)k[ins.B];
+                    if (r[ins.C] is not StructTypeValue structType)
+                    {
+                        throw new SemanticError("Error Semantico: Clase no encontrada", positions[pc - 1]);
+                    }
+
+                    r[ins.A] = Instantiate(structType.Decl, literal.Cache, Registers(r, ins.C + 1, literal.Values.Length), positions[pc - 1]);
+                    break;
+                }
+                case OpCode.Len:
+                    r[ins.A] = r[ins.B] is SliceValue sized ? new IntValue(sized.Data.Count) : Len.Apply(new List<ValueWrapper> { r[ins.B]! });
+                    break;
+                case OpCode.LenInt:
+                    n[ins.A] = ((SliceValue)r[ins.B]!).Data.Count;
+                    break;
+                case OpCode.Append:
+                    if (r[ins.B] is SliceValue appended)
+                    {
+                        appended.Data.Append(r[ins.C]!, -1);
+                        r[ins.A] = appended;
+                    }
+                    else
+                    {
+                        r[ins.A] = Append.Apply(new List<ValueWrapper> { r[ins.B]!, r[ins.C]! });
+                    }
+                    break;
+                case OpCode.Range:
+                    AstInterpreter.RangeSource(r[ins.B]!, positions[pc - 1]);
+                    r[ins.A] = r[ins.B];
+                    break;
+                case OpCode.RangeItem:
+                    r[ins.A] = ((SliceValue)r[ins.B]!).Data.Get((int)n[ins.B + 1], positions[pc - 1]);
+                    break;
+                case OpCode.RangeInt:
+                    n[ins.A] = CompiledProgram.IntItem(((SliceValue)r[ins.B]!).Data, (int)n[ins.B + 1], (string)k[ins.C], positions[pc - 1]);
+                    break;
+
+                case OpCode.DeclareVar:
+                    r[ins.A] = DeclareVariable((VarDecl)k[ins.B], ins.C < 0 ? null : r[ins.C]);
+                    break;
+                case OpCode.DeclareSymbol:
+                {
+                    var decl = (VarDecl)k[ins.B];
+                    AddSymbol(decl.Name, "Variable", decl.Type!, "Global", decl.Pos);
+                    break;
+                }
+                case OpCode.DeclareFunc:
+                    r[ins.A] = DeclareFunction((BytecodeFunction)k[ins.B], frame);
+                    break;
+                case OpCode.DeclareStruct:
+                    r[ins.A] = DeclareStruct((StructDecl)k[ins.B], (BytecodeFunction?[])k[ins.C]);
+                    break;
+                case OpCode.DeclareSlice:
+                {
+                    var decl = (SliceDecl)k[ins.B];
+                    AddSymbol(decl.Name, "Variable", "Slice", "Global", decl.Pos);
+                    r[ins.A] = new SliceValue(SliceData.Create(decl.ElementType, 0));
+                    break;
+                }
+                case OpCode.DeclareMatrix:
+                    r[ins.A] = DeclareMatrix((MatrixDecl)k[ins.B], r, ins.C);
+                    break;
+
+                default:
+                    throw new SemanticError("Error Semantico: instruccion invalida " + ins.Op, positions[pc - 1]);
+            }
+        }
+    }
+
+    private static Frame Outer(Frame frame, int depth)
+    {
+        for (; depth > 0; depth--)
+        {
+            frame = frame.Parent!;
+        }
+
+        return frame;
+    }
+
+    // Copia count registros desde first, para los metodos que esperan un arreglo
+    private static ValueWrapper[] Registers(ValueWrapper?[] r, int first, int count)
+    {
+        var values = new ValueWrapper[count];
+        Array.Copy(r, first, values, 0, count);
+        return values;
+    }
+
+
+    // Llamadas: el callee esta en r[first] y los argumentos en los registros siguientes
+    private ValueWrapper Call(ValueWrapper?[] r, int first, int count, int pos)
+    {
+        return r[first] switch
+        {
+            VmClosureValue closure => InvokeWithBudget(closure, r, first + 1, count, pos),
+            BuiltinValue builtin => AstInterpreter.CallBuiltin(builtin.Name, new List<ValueWrapper>(Registers(r, first + 1, count)), output, pos),
+            StructTypeValue structType => Instantiate(structType.Decl, null, Registers(r, first + 1, count), pos),
+            _ => throw new SemanticError("Error Semantico: Funcion invalida o no encontrada", pos)
+        };
+    }
+
+    private ValueWrapper InvokeWithBudget(VmClosureValue closure, ValueWrapper?[] r, int first, int count, int pos)
+    {
+        Budget.Enter(pos);
+
+        try
+        {
+            return Invoke(closure, r, first, count, pos);
+        }
+        finally
+        {
+            Budget.Exit();
+        }
+    }
+
+    private ValueWrapper Invoke(VmClosureValue closure, ValueWrapper?[] r, int first, int count, int pos)
+    {
+        var function = closure.Function;
+        FuncDecl decl = function.Decl!;
+
+        if (count != decl.Params.Length)
+        {
+            throw new SemanticError($"Error Semantico: la funcion {decl.Name} espera {decl.Params.Length} argumentos, pero recibio {count}", pos);
+        }
+
+        // Los parametros ocupan los primeros registros, los temporales van despues de las variables
+        var frame = new Frame(function.RegisterCount, closure.Closure, true);
+        for (int i = 0; i < count; i++)
+        {
+            frame.Slots[i] = AstInterpreter.Argument(decl, i, r[first + i]!, pos);
+        }
+
+        return Execute(function, frame);
+    }
+
+    // names == null cuando el struct se invoca como funcion con argumentos posicionales
+    private StructInstanceValue Instantiate(StructDecl decl, FieldCache? names, ValueWrapper[] values, int pos)
+    {
+        var inits = structInits[decl];
+        var fields = new ValueWrapper[decl.Fields.Length];
+
+        for (int i = 0; i < fields.Length; i++)
+        {
+            var field = decl.Fields[i];
+            var init = inits[i];
+            fields[i] = init != null ? Execute(init, new Frame(init.RegisterCount, globals, true))
+                : field.Type != null ? AstInterpreter.DefaultValue(field.Type, field.Pos)
+                : defaultVoid;
+        }
+
+        if (names == null)
+        {
+            if (values.Length != decl.Fields.Length)
+            {
+                throw new SemanticError($"Error Semántico: Se esperaban {decl.Fields.Length} argumentos, pero se recibieron {values.Length}.", pos);
+            }
+
+            values.CopyTo(fields, 0);
+        }
+        else
+        {
+            int[] slots = names.Slots(decl, pos);
+            for (int i = 0; i < slots.Length; i++)
+            {
+                fields[slots[i]] = values[i];
+            }
+        }
+
+        return new StructInstanceValue(decl, fields);
+    }
+
+
+    // Declaraciones, con la misma tabla de simbolos que CompiledProgram
+    private ValueWrapper DeclareVariable(VarDecl s, ValueWrapper? value)
+    {
+        if (s.Init is StructLiteral literal)
+        {
+            AddSymbol(s.Name, "Struct", literal.StructName, "Global", s.Pos);
+            return value!;
+        }
+
+        if (value != null && s.Type != null)
+        {
+            if (!AstInterpreter.MatchesType(s.Type, value))
+            {
+                throw new SemanticError($"Error: el tipo de valor {value.GetType().Name} no coicide a una variable de tipo {s.Type}", s.Pos);
+            }
+
+            AddSymbol(s.Name, "Variable", s.Type, "Global", s.Pos);
+            return value;
+        }
+
+        if (s.Type != null)
+        {
+            AddSymbol(s.Name, "Variable", s.Type, "Global", s.Pos);
+            return AstInterpreter.DefaultValue(s.Type, s.Pos);
+        }
+
+        if (value is SliceValue slice)
+        {
+            AddSymbol(s.Name, "Slice", slice.Data.ElementType, "main", s.Pos);
+        }
+
+        return value!;
+    }
+
+    private ValueWrapper DeclareFunction(BytecodeFunction function, Frame closure)
+    {
+        var s = function.Decl!;
+        if (s.ReturnType != null)
+        {
+            AddSymbol(s.Name, "Funcion", s.ReturnType, "Global", s.Pos);
+        }
+        AddSymbol(s.Name, "Funcion", "func", "Global", s.Pos);
+
+        return new VmClosureValue(function, closure);
+    }
+
+    private ValueWrapper DeclareStruct(StructDecl s, BytecodeFunction?[] inits)
+    {
+        AddSymbol(s.Name, "Struct", s.Name, "Global", s.Pos);
+        structInits[s] = inits;
+
+        return new StructTypeValue(s);
+    }
+
+    // Las celdas vienen en registros seguidos, fila por fila
+    private ValueWrapper DeclareMatrix(MatrixDecl s, ValueWrapper?[] r, int first)
+    {
+        AddSymbol(s.Name, "Variable", "Matriz", "Global", s.Pos);
+
+        var rows = new ValueWrapper[s.Rows.Length][];
+        for (int i = 0; i < rows.Length; i++)
+        {
+            rows[i] = Registers(r, first, s.Rows[i].Length);
+            first += rows[i].Length;
+        }
+
+        return AstInterpreter.NewMatrix(s.ElementType, rows, s.Pos);
+    }
+}
@@ -17,6 +17,9 @@ public class CompilerVisitor : LanguageBaseVisitor<ValueWrapper>
     public string output = "";
     public Environment currentEnvironment; //Entorno actual
 
+    // Limites del sandbox, se revisan en cada vuelta de ciclo y en cada llamada
+    public ExecutionBudget budget = ExecutionBudget.Unlimited();
+
     public CompilerVisitor()
     {
         currentEnvironment = new Environment(null);
@@ -40,7 +43,15 @@ public void ExecuteMain()
     }
 
     // Ejecutar la función 'main'
-    mainFunc.invocable.Invoke(new List<ValueWrapper>(), this);
+    var previous = budget.Activate();
+    try
+    {
+        mainFunc.invocable.Invoke(new List<ValueWrapper>(), this);
+    }
+    finally
+    {
+        ExecutionBudget.Restore(previous);
+    }
 }
 
 
@@ -329,7 +340,7 @@ public void ExecuteMain()
     // VisitInt
     public override ValueWrapper VisitInt(LanguageParser.IntContext context)
     {
-        return new IntValue((int.Parse(context.INT().GetText()))*-1);
+        return new IntValue(int.Parse(context.INT().GetText()));
     }
 
 
@@ -381,7 +392,7 @@ public void ExecuteMain()
             (IntValue l, FloatValue r, "+") => new FloatValue(l.Value + r.Value), //int + float64
             (FloatValue l, FloatValue r, "+") => new FloatValue(l.Value + r.Value), //float64 + float64
             (FloatValue l, IntValue r, "+") => new FloatValue(l.Value + r.Value), //float64 + int
-            (StringValue l, StringValue r, "+") => new StringValue(l.Value + r.Value), //string + string
+            (StringValue l, StringValue r, "+") => StringValue.Concat(l, r, SourcePos.Pack(context.Start)), //string + string
 
 
             (IntValue l, IntValue r, "-") => new IntValue(l.Value - r.Value), //int - int
@@ -456,11 +467,11 @@ public void ExecuteMain()
             (IntValue l, IntValue r, "+=") => new IntValue(l.Value + r.Value), // int + int
             (FloatValue l, FloatValue r, "+=") => new FloatValue(l.Value + r.Value), //float64 + float64
             (FloatValue l, IntValue r, "+=") => new FloatValue(l.Value + r.Value), //float64 + int
-            (StringValue l, StringValue r, "+=") => new StringValue(l.Value + r.Value), //string + string
+            (StringValue l, StringValue r, "+=") => StringValue.Concat(l, r, SourcePos.Pack(context.Start)), //string + string
 
-            (IntValue l, IntValue r, "-=") => new IntValue(l.Value + r.Value), // int - int
-            (FloatValue l, FloatValue r, "-=") => new FloatValue(l.Value + r.Value), //float64 - float64
-            (FloatValue l, IntValue r, "-=") => new FloatValue(l.Value + r.Value), //float64 - int
+            (IntValue l, IntValue r, "-=") => new IntValue(l.Value - r.Value), // int - int
+            (FloatValue l, FloatValue r, "-=") => new FloatValue(l.Value - r.Value), //float64 - float64
+            (FloatValue l, IntValue r, "-=") => new FloatValue(l.Value - r.Value), //float64 - int
             _ => throw new SemanticError($"Error Semantico: No se puede aplicar '{op}' entre {left.GetType().Name} y {right.GetType().Name}.", context.Start)
         };
 
@@ -902,6 +913,8 @@ public void ExecuteMain()
         {
             while (condition is BoolValue boolCondition && boolCondition.Value)
             {
+                budget.Step(SourcePos.Pack(context.Start));
+
                 try
                 {
                     Visit(context.stmt());
@@ -956,6 +969,8 @@ public void ExecuteMain()
 
         for (int i = 0; i < array.Count; i++) // Recorrer la expresion 
         {
+            budget.Step(SourcePos.Pack(context.Start));
+
             //Actuliza los valores de las variables
             currentEnvironment.AssignSymbol(indexVar, new IntValue(i), context.Start);
             currentEnvironment.AssignSymbol(valueVar, array[i], context.Start);
@@ -992,6 +1007,7 @@ public void ExecuteMain()
         {
             while (condition is BoolValue boolCondition && boolCondition.Value)
             {
+                budget.Step(SourcePos.Pack(context.Start));
                 Visit(context.stmt());
                 Visit(context.expr(1));
                 condition = Visit(context.expr(0));
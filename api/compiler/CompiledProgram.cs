@@ -0,0 +1,366 @@
+using Proyecto1_OLC2;
+
+// Programa generado por AstCompiler y el estado que necesita en ejecucion.
+// Los delegados generados llaman a estos metodos para las operaciones que no se expanden en linea.
+public class CompiledProgram
+{
+    public SymbolTable symbolTable = new SymbolTable();
+
+    private static readonly ValueWrapper defaultVoid = new VoidValue();
+
+    private OutputSink output = new StringOutputSink();
+    private readonly Frame globals;
+    private readonly Dictionary<StructDecl, Func<Frame, ValueWrapper>?[]> structInits = new Dictionary<StructDecl, Func<Frame, ValueWrapper>?[]>();
+    private Action<Frame> init = _ => { };
+    private FuncDecl? main;
+
+    public string Output => output.Text;
+
+    public OutputSink Sink
+    {
+        get => output;
+        set => output = value;
+    }
+
+    // Limites del sandbox, el codigo generado llama a Step en cada vuelta de ciclo
+    public ExecutionBudget Budget { get; set; } = ExecutionBudget.Unlimited();
+
+    public CompiledProgram(int frameSize)
+    {
+        globals = new Frame(frameSize, null);
+    }
+
+    internal void Initialize(Action<Frame> init, FuncDecl? main)
+    {
+        this.init = init;
+        this.main = main;
+    }
+
+    public void Run()
+    {
+        var previous = Budget.Activate();
+        try
+        {
+            init(globals);
+
+            if (main == null || globals.Slots[main.Slot] is not CompiledClosureValue mainFunc)
+            {
+                throw new SemanticError("Error: No se encontró la función 'main'.");
+            }
+
+            Invoke(mainFunc, Array.Empty<ValueWrapper>(), main.Pos);
+        }
+        finally
+        {
+            ExecutionBudget.Restore(previous);
+        }
+    }
+
+    private void AddSymbol(string id, string tipo, string tipoDato, string ambito, int pos)
+    {
+        symbolTable.AddSymbol(new Symbol(id, tipo, tipoDato, ambito, SourcePos.Line(pos), SourcePos.Column(pos)));
+    }
+
+
+    // Declaraciones
+    public ValueWrapper DeclareVariable(VarDecl s, ValueWrapper? value)
+    {
+        if (s.Init is StructLiteral literal)
+        {
+            AddSymbol(s.Name, "Struct", literal.StructName, "Global", s.Pos);
+            return value!;
+        }
+
+        if (value != null && s.Type != null)
+        {
+            if (!AstInterpreter.MatchesType(s.Type, value))
+            {
+                throw new SemanticError($"Error: el tipo de valor {value.GetType().Name} no coicide a una variable de tipo {s.Type}", s.Pos);
+            }
+
+            AddSymbol(s.Name, "Variable", s.Type, "Global", s.Pos);
+            return value;
+        }
+
+        if (s.Type != null)
+        {
+            AddSymbol(s.Name, "Variable", s.Type, "Global", s.Pos);
+            return AstInterpreter.DefaultValue(s.Type, s.Pos);
+        }
+
+        if (value is SliceValue slice)
+        {
+            AddSymbol(s.Name, "Slice", slice.Data.ElementType, "main", s.Pos);
+        }
+
+        return value!;
+    }
+
+    // var x int = e cuando e ya es int: el valor va directo al slot sin caja
+    public void DeclareSymbol(VarDecl s)
+    {
+        AddSymbol(s.Name, "Variable", s.Type!, "Global", s.Pos);
+    }
+
+    public ValueWrapper DeclareFunction(FuncDecl s, Frame closure, Func<Frame, ValueWrapper> code)
+    {
+        if (s.ReturnType != null)
+        {
+            AddSymbol(s.Name, "Funcion", s.ReturnType, "Global", s.Pos);
+        }
+        AddSymbol(s.Name, "Funcion", "func", "Global", s.Pos);
+
+        return new CompiledClosureValue(s, closure, code);
+    }
+
+    public ValueWrapper DeclareStruct(StructDecl s, Func<Frame, ValueWrapper>?[] inits)
+    {
+        AddSymbol(s.Name, "Struct", s.Name, "Global", s.Pos);
+        structInits[s] = inits;
+
+        return new StructTypeValue(s);
+    }
+
+    public ValueWrapper DeclareSlice(SliceDecl s)
+    {
+        AddSymbol(s.Name, "Variable", "Slice", "Global", s.Pos);
+        return new SliceValue(SliceData.Create(s.ElementType, 0));
+    }
+
+    public ValueWrapper DeclareMatrix(MatrixDecl s, ValueWrapper[][] rows)
+    {
+        AddSymbol(s.Name, "Variable", "Matriz", "Global", s.Pos);
+        return AstInterpreter.NewMatrix(s.ElementType, rows, s.Pos);
+    }
+
+
+    // Llamadas
+    public ValueWrapper Call(ValueWrapper callee, ValueWrapper[] arguments, int pos)
+    {
+        return callee switch
+        {
+            CompiledClosureValue closure => InvokeWithBudget(closure, arguments, pos),
+            BuiltinValue builtin => AstInterpreter.CallBuiltin(builtin.Name, new List<ValueWrapper>(arguments), output, pos),
+            StructTypeValue structType => Instantiate(structType.Decl, null, arguments, pos),
+            _ => throw new SemanticError("Error Semantico: Funcion invalida o no encontrada", pos)
+        };
+    }
+
+    public void Step(int pos)
+    {
+        Budget.Step(pos);
+    }
+
+    private ValueWrapper InvokeWithBudget(CompiledClosureValue closure, ValueWrapper[] arguments, int pos)
+    {
+        Budget.Enter(pos);
+
+        try
+        {
+            return Invoke(closure, arguments, pos);
+        }
+        finally
+        {
+            Budget.Exit();
+        }
+    }
+
+    private static ValueWrapper Invoke(CompiledClosureValue closure, ValueWrapper[] arguments, int pos)
+    {
+        FuncDecl decl = closure.Decl;
+
+        if (arguments.Length != decl.Params.Length)
+        {
+            throw new SemanticError($"Error Semantico: la funcion {decl.Name} espera {decl.Params.Length} argumentos, pero recibio {arguments.Length}", pos);
+        }
+
+        // Los parametros ocupan los primeros slots del frame
+        var frame = new Frame(decl.FrameSize, closure.Closure, decl.HasScalars);
+        for (int i = 0; i < arguments.Length; i++)
+        {
+            frame.Slots[i] = AstInterpreter.Argument(decl, i, arguments[i], pos);
+        }
+
+        return closure.Code(frame);
+    }
+
+    public ValueWrapper NewStruct(ValueWrapper type, FieldCache names, ValueWrapper[] values, int pos)
+    {
+        if (type is not StructTypeValue structType)
+        {
+            throw new SemanticError("Error Semantico: Clase no encontrada", pos);
+        }
+
+        return Instantiate(structType.Decl, names, values, pos);
+    }
+
+    // names == null cuando el struct se invoca como funcion con argumentos posicionales
+    private StructInstanceValue Instantiate(StructDecl decl, FieldCache? names, ValueWrapper[] values, int pos)
+    {
+        var inits = structInits[decl];
+        var fields = new ValueWrapper[decl.Fields.Length];
+
+        for (int i = 0; i < fields.Length; i++)
+        {
+            var field = decl.Fields[i];
+            fields[i] = inits[i] != null ? inits[i]!(globals)
+                : field.Type != null ? AstInterpreter.DefaultValue(field.Type, field.Pos)
+                : defaultVoid;
+        }
+
+        if (names == null)
+        {
+            if (values.Length != decl.Fields.Length)
+            {
+                throw new SemanticError($"Error Semántico: Se esperaban {decl.Fields.Length} argumentos, pero se recibieron {values.Length}.", pos);
+            }
+
+            values.CopyTo(fields, 0);
+        }
+        else
+        {
+            int[] slots = names.Slots(decl, pos);
+            for (int i = 0; i < slots.Length; i++)
+            {
+                fields[slots[i]] = values[i];
+            }
+        }
+
+        return new StructInstanceValue(decl, fields);
+    }
+
+
+    // Operaciones
+    public static bool Truth(ValueWrapper value, int pos)
+    {
+        if (value is not BoolValue condition)
+        {
+            throw new SemanticError("Error Semantico: Condicion invalida", pos);
+        }
+
+        return condition.Value;
+    }
+
+    public static BoolValue RequireBool(ValueWrapper value, int pos)
+    {
+        return value as BoolValue ?? throw new SemanticError("Error Semantico: Operacion Invalida", pos);
+    }
+
+    public static ValueWrapper Negate(ValueWrapper value, int pos)
+    {
+        return value switch
+        {
+            IntValue i => new IntValue(-i.Value),
+            FloatValue f => new FloatValue(-f.Value),
+            _ => throw new SemanticError("Error Semantico: Operacion invalida", pos)
+        };
+    }
+
+    public static ValueWrapper Not(ValueWrapper value, int pos)
+    {
+        return new BoolValue(!RequireBool(value, pos).Value);
+    }
+
+    public static ValueWrapper CheckAssign(ValueWrapper variable, ValueWrapper value, string name, int pos)
+    {
+        // Si la variable ya tiene un valor, el tipo de dato debe coincidir
+        if (variable is not VoidValue && !AstInterpreter.SameType(variable, value))
+        {
+            throw new SemanticError($"Error Semantico: el tipo {value.GetType().Name} no coicidi con variable '{name}'", pos);
+        }
+
+        return value;
+    }
+
+    // Valor de un slot sin caja (Frame.Scalars), con el mismo error que una asignacion de otro tipo
+    public static long Unbox(ValueWrapper value, StaticType type, string name, int pos)
+    {
+        return (type, value) switch
+        {
+            (StaticType.Int, IntValue i) => i.Value,
+            (StaticType.Bool, BoolValue b) => b.Value ? 1 : 0,
+            (StaticType.Rune, RuneValue r) => r.Value,
+            _ => throw new SemanticError($"Error Semantico: el tipo {value.GetType().Name} no coicidi con variable '{name}'", pos)
+        };
+    }
+
+    // Elemento i de un for range sobre []int
+    public static int IntItem(SliceData items, int i, string name, int pos)
+    {
+        return items is IntSlice ints ? ints.At(i, pos) : (int)Unbox(items.Get(i, pos), StaticType.Int, name, pos);
+    }
+
+    public static ValueWrapper Compound(BinaryOp op, ValueWrapper left, ValueWrapper right, int pos)
+    {
+        // Un int no puede pasar a float64 con += o -=
+        if (left is IntValue && right is not IntValue || left is StringValue && op != BinaryOp.Add)
+        {
+            throw new SemanticError($"Error Semantico: No se puede aplicar el operador entre {left.GetType().Name} y {right.GetType().Name}.", pos);
+        }
+
+        return AstInterpreter.BinaryOperation(op, left, right, pos);
+    }
+
+    public static ValueWrapper IncDec(ValueWrapper value, int delta, int pos)
+    {
+        return value switch
+        {
+            IntValue l => new IntValue(l.Value + delta),
+            FloatValue f => new FloatValue(f.Value + delta),
+            _ => throw new SemanticError($"Error Semantico: Operacion invalida  {value.GetType().Name}.", pos)
+        };
+    }
+
+    public static ValueWrapper NewSlice(string elementType, ValueWrapper[] elements, int pos)
+    {
+        return AstInterpreter.NewSlice(elementType, elements, pos);
+    }
+
+    public static SliceData RangeSource(ValueWrapper source, int pos)
+    {
+        return AstInterpreter.RangeSource(source, pos);
+    }
+
+    public static ValueWrapper Index(ValueWrapper index, ValueWrapper target, int pos)
+    {
+        return AstInterpreter.IndexAt(target, IndexValue(index, pos), pos);
+    }
+
+    public static ValueWrapper MatrixIndex(ValueWrapper row, ValueWrapper column, ValueWrapper target, int pos)
+    {
+        int i = IndexValue(row, pos);
+        int j = IndexValue(column, pos);
+
+        return AstInterpreter.MatrixAt(target, i, j, pos);
+    }
+
+    public static ValueWrapper SetIndex(ValueWrapper value, ValueWrapper target, ValueWrapper index, int pos)
+    {
+        AstInterpreter.SetAt(target, IndexValue(index, pos), value, pos);
+        return value;
+    }
+
+    public static ValueWrapper SetMatrix(ValueWrapper value, ValueWrapper target, ValueWrapper row, ValueWrapper column, int pos)
+    {
+        int i = IndexValue(row, pos);
+        int j = IndexValue(column, pos);
+
+        AstInterpreter.SetMatrixAt(target, i, j, value, pos);
+        return value;
+    }
+
+    public static ValueWrapper SetField(ValueWrapper value, ValueWrapper target, FieldCache field, int pos)
+    {
+        return AstInterpreter.SetField(target, field, value, pos);
+    }
+
+    private static int IndexValue(ValueWrapper index, int pos)
+    {
+        if (index is not IntValue intIndex)
+        {
+            throw new SemanticError("Error Semántico: Índice inválido", pos);
+        }
+
+        return intIndex.Value;
+    }
+}
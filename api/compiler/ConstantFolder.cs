@@ -0,0 +1,224 @@
+// Plegado de constantes sobre el AST, antes de TypeChecker.
+// Las operaciones entre literales se calculan una sola vez con la misma semantica del interprete
+// (AstInterpreter.BinaryOperation); si la operacion falla (division entre cero, tipos invalidos,
+// desborde de decimal)
+// el nodo se deja igual para que el error salga en ejecucion como siempre.
+// Los if con condicion literal y los case que nunca coinciden se eliminan.
+public static class ConstantFolder
+{
+    public static AstProgram Fold(AstProgram program)
+    {
+        return new AstProgram(Stmts(program.Declarations), program.FrameSize);
+    }
+
+
+    // Sentencias
+    private static AstStmt[] Stmts(AstStmt[] stmts)
+    {
+        return Array.ConvertAll(stmts, Stmt);
+    }
+
+    private static AstStmt Stmt(AstStmt stmt)
+    {
+        switch (stmt)
+        {
+            case ExprStmt s:
+                return new ExprStmt(s.Pos, Expr(s.Expr));
+            case VarDecl s:
+                return Field(s);
+            case Block s:
+                return new Block(s.Pos, Stmts(s.Body));
+            case IfStmt s:
+            {
+                var condition = Expr(s.Condition);
+
+                // Una condicion que no es bool sigue dando error en ejecucion
+                if (condition is BoolLiteral literal)
+                {
+                    return literal.Value ? Stmt(s.Then)
+                        : s.Else != null ? Stmt(s.Else)
+                        : new Block(s.Pos, Array.Empty<AstStmt>());
+                }
+
+                return new IfStmt(s.Pos, condition, Stmt(s.Then), s.Else == null ? null : Stmt(s.Else));
+            }
+            case SwitchStmt s:
+                return Switch(s);
+            case ForStmt s:
+                return new ForStmt(s.Pos, Stmt(s.Init), Expr(s.Condition), Expr(s.Update), Stmt(s.Body));
+            case WhileStmt s:
+                return new WhileStmt(s.Pos, Expr(s.Condition), Stmt(s.Body));
+            case ForRangeStmt s:
+                return new ForRangeStmt(s.Pos, s.IndexName, s.ValueName, Expr(s.Source), Stmt(s.Body), s.IndexSlot, s.ValueSlot);
+            case ReturnStmt s:
+                return new ReturnStmt(s.Pos, s.Value == null ? null : Expr(s.Value));
+            case FuncDecl s:
+                return new FuncDecl(s.Pos, s.Name, s.Params, s.ParamTypes, s.ReturnType, Stmts(s.Body), s.Slot, s.FrameSize);
+            case StructDecl s:
+                return new StructDecl(s.Pos, s.Name, Array.ConvertAll(s.Fields, Field), s.Slot);
+            case MatrixDecl s:
+                return new MatrixDecl(s.Pos, s.Name, s.ElementType, Array.ConvertAll(s.Rows, Exprs), s.Slot);
+            default:
+                // break, continue y var x []T
+                return stmt;
+        }
+    }
+
+    private static VarDecl Field(VarDecl s)
+    {
+        return new VarDecl(s.Pos, s.Name, s.Type, s.Init == null ? null : Expr(s.Init), s.Slot);
+    }
+
+    // Con sujeto literal se quitan los case literales distintos, y todo lo que sigue al que coincide.
+    // Los case no literales se conservan porque se evaluan en orden hasta encontrar uno igual.
+    private static AstStmt Switch(SwitchStmt s)
+    {
+        var subject = Expr(s.Subject);
+        var cases = new List<SwitchCase>(s.Cases.Length);
+        var subjectValue = Constant(subject);
+
+        foreach (var c in s.Cases)
+        {
+            var value = Expr(c.Value);
+            var caseValue = Constant(value);
+
+            if (subjectValue != null && caseValue != null)
+            {
+                if (!subjectValue.Equals(caseValue))
+                {
+                    continue;
+                }
+
+                // Este case siempre gana, el default ya no se alcanza
+                cases.Add(new SwitchCase(value, Stmts(c.Body)));
+                return new SwitchStmt(s.Pos, subject, cases.ToArray(), null);
+            }
+
+            cases.Add(new SwitchCase(value, Stmts(c.Body)));
+        }
+
+        return new SwitchStmt(s.Pos, subject, cases.ToArray(), s.Default == null ? null : Stmts(s.Default));
+    }
+
+
+    // Expresiones
+    private static AstExpr[] Exprs(AstExpr[] exprs)
+    {
+        return Array.ConvertAll(exprs, Expr);
+    }
+
+    private static AstExpr Expr(AstExpr expr)
+    {
+        switch (expr)
+        {
+            case Binary e:
+                return Binary(e);
+            case Negate e:
+            {
+                var operand = Expr(e.Operand);
+                return operand switch
+                {
+                    IntLiteral i => new IntLiteral(e.Pos, -i.Value),
+                    FloatLiteral f => new FloatLiteral(e.Pos, -f.Value),
+                    _ => new Negate(e.Pos, operand)
+                };
+            }
+            case Not e:
+            {
+                var operand = Expr(e.Operand);
+                return operand is BoolLiteral b ? new BoolLiteral(e.Pos, !b.Value) : new Not(e.Pos, operand);
+            }
+            case Assign e:
+                return new Assign(e.Pos, e.Target is VarRef ? e.Target : Expr(e.Target), Expr(e.Value));
+            case CompoundAssign e:
+                return new CompoundAssign(e.Pos, e.Target, e.Op, Expr(e.Value));
+            case SliceLiteral e:
+                return new SliceLiteral(e.Pos, e.ElementType, Exprs(e.Elements));
+            case IndexExpr e:
+                return new IndexExpr(e.Pos, e.Array, Expr(e.Index));
+            case MatrixIndexExpr e:
+                return new MatrixIndexExpr(e.Pos, e.Matrix, Expr(e.Row), Expr(e.Column));
+            case StructLiteral e:
+                return new StructLiteral(e.Pos, e.Type, e.Fields, Exprs(e.Values));
+            case Call e:
+                return new Call(e.Pos, Expr(e.Callee), Exprs(e.Args));
+            case FieldGet e:
+                return new FieldGet(e.Pos, Expr(e.Target), e.Field);
+            default:
+                // Literales, variables, x++ y funciones embebidas
+                return expr;
+        }
+    }
+
+    private static AstExpr Binary(Binary e)
+    {
+        var left = Expr(e.Left);
+        var right = Expr(e.Right);
+
+        // && y || solo se pliegan cuando no cambia que lado se evalua
+        if (e.Op == BinaryOp.And || e.Op == BinaryOp.Or)
+        {
+            if (left is BoolLiteral l && (e.Op == BinaryOp.And ? !l.Value : l.Value))
+            {
+                return left;
+            }
+
+            if (left is BoolLiteral && right is BoolLiteral)
+            {
+                return right;
+            }
+
+            return new Binary(e.Pos, e.Op, left, right);
+        }
+
+        var leftValue = Constant(left);
+        var rightValue = Constant(right);
+
+        if (leftValue != null && rightValue != null)
+        {
+            try
+            {
+                var folded = Literal(e.Pos, AstInterpreter.BinaryOperation(e.Op, leftValue, rightValue, e.Pos));
+                if (folded != null)
+                {
+                    return folded;
+                }
+            }
+            catch (SemanticError)
+            {
+                // Se reporta al ejecutar, con el mismo mensaje
+            }
+            catch (OverflowException)
+            {
+                // Igual que arriba: si la rama nunca corre, el desborde no es un error
+            }
+        }
+
+        return new Binary(e.Pos, e.Op, left, right);
+    }
+
+    private static ValueWrapper? Constant(AstExpr expr)
+    {
+        return expr switch
+        {
+            IntLiteral e => new IntValue(e.Value),
+            FloatLiteral e => new FloatValue(e.Value),
+            StringLiteral e => new StringValue(e.Value),
+            BoolLiteral e => new BoolValue(e.Value),
+            RuneLiteral e => new RuneValue(e.Value),
+            _ => null
+        };
+    }
+
+    private static AstExpr? Literal(int pos, ValueWrapper value)
+    {
+        return value switch
+        {
+            IntValue v => new IntLiteral(pos, v.Value),
+            FloatValue v => new FloatLiteral(pos, v.Value),
+            StringValue v => new StringLiteral(pos, v.Value),
+            BoolValue v => new BoolLiteral(pos, v.Value),
+            _ => null
+        };
+    }
+}
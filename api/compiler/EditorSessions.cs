@@ -0,0 +1,121 @@
+// Sesiones del editor con reparseo incremental, una por documento abierto.
+// Cada sesion guarda el texto completo y los subarboles de sus declaraciones, asi que hay un limite
+// de sesiones y de largo del documento; una sesion sin uso por mas de idleTimeout se descarta.
+public class EditorSessions
+{
+    private sealed class Session
+    {
+        public readonly IncrementalParser Parser = new IncrementalParser();
+        public long LastUsed;
+    }
+
+    // Los nombres de sesion los elige el cliente, uno mas largo que esto no se acepta
+    public const int MaxIdLength = 128;
+
+    public static EditorSessions Shared { get; set; } = new EditorSessions(256, 1024 * 1024, TimeSpan.FromMinutes(30));
+
+    private readonly object sync = new object();
+    private readonly Dictionary<string, Session> sessions = new Dictionary<string, Session>();
+
+    private readonly int maxSessions;
+    private readonly int maxDocumentLength;
+    private readonly long idleTimeoutMs;
+
+    public EditorSessions(int maxSessions, int maxDocumentLength, TimeSpan idleTimeout)
+    {
+        this.maxSessions = maxSessions;
+        this.maxDocumentLength = maxDocumentLength;
+        idleTimeoutMs = (long)idleTimeout.TotalMilliseconds;
+    }
+
+    public int Count
+    {
+        get
+        {
+            lock (sync)
+            {
+                return sessions.Count;
+            }
+        }
+    }
+
+    public bool Fits(int documentLength)
+    {
+        return documentLength <= maxDocumentLength;
+    }
+
+    // Sesion existente o nueva; null si el nombre es invalido o ya no caben mas sesiones
+    public IncrementalParser? Open(string id)
+    {
+        if (id.Length > MaxIdLength)
+        {
+            return null;
+        }
+
+        lock (sync)
+        {
+            long now = System.Environment.TickCount64;
+
+            if (!sessions.TryGetValue(id, out var session))
+            {
+                if (sessions.Count >= maxSessions)
+                {
+                    RemoveIdle(now);
+                }
+
+                if (sessions.Count >= maxSessions)
+                {
+                    return null;
+                }
+
+                session = new Session();
+                sessions.Add(id, session);
+            }
+
+            session.LastUsed = now;
+            return session.Parser;
+        }
+    }
+
+    // null si la sesion no existe o ya expiro
+    public IncrementalParser? Get(string id)
+    {
+        lock (sync)
+        {
+            long now = System.Environment.TickCount64;
+
+            if (!sessions.TryGetValue(id, out var session))
+            {
+                return null;
+            }
+
+            if (now - session.LastUsed > idleTimeoutMs)
+            {
+                sessions.Remove(id);
+                return null;
+            }
+
+            session.LastUsed = now;
+            return session.Parser;
+        }
+    }
+
+    public void Close(string id)
+    {
+        lock (sync)
+        {
+            sessions.Remove(id);
+        }
+    }
+
+    private void RemoveIdle(long now)
+    {
+        foreach (var (id, session) in sessions.ToList())
+        {
+            if (now - session.LastUsed > idleTimeoutMs)
+            {
+                sessions.Remove(id);
+            }
+        }
+    }
+}
@@ -36,6 +36,13 @@ public class PrintEmbeded : Invocable
     }
 
     public ValueWrapper Invoke(List<ValueWrapper> args, CompilerVisitor visitor)
+    {
+        visitor.output += Format(args);
+        return visitor.defaultVoid;
+    }
+
+    // Texto de una llamada a fmt.Println, lo usan el visitor y el interprete del AST
+    public static string Format(List<ValueWrapper> args)
     {
 
         var output = "";
@@ -59,6 +66,12 @@ public class PrintEmbeded : Invocable
                 })) + " ]",
 
 
+                SliceValue slice => "[ " + string.Join(", ", slice.Data.Values().Select(value => Element(value, "Error Semantico: Datos invalidos para el arreglo"))) + " ]",
+
+                FlatMatrixValue flat => "  " + string.Join("  ", flat.Data.AllRows().Select(row =>
+                    "[ " + string.Join(", ", row.Values().Select(value => Element(value, "Error Semantico: Datos invalidos en la matriz"))) + " ]\n"
+                )) + "",
+
                 MatrixValue matrix => "  " + string.Join("  ", matrix.Value.Select(row =>
                     "[ " + string.Join(", ", row.Select(value => value switch
                     {
@@ -72,13 +85,35 @@ public class PrintEmbeded : Invocable
 
                 StructValue structValue => structValue.languageStruct.Name + " { " + string.Join(", ", structValue.languageStruct.Props.Select(p => p.Key + ": " + p.Value)) + " }",
 
+                StructInstanceValue instancia => instancia.Decl.Name + " { " + string.Join(", ", instancia.Fields.Select((value, i) => instancia.Decl.Layout.Names[i] + ": " + value switch
+                {
+                    IntValue i => i.Value.ToString(),
+                    FloatValue f => f.Value.ToString(),
+                    StringValue s => Regex.Unescape(s.Value.Trim('"')),
+                    BoolValue b => b.Value.ToString(),
+                    RuneValue r => r.Value.ToString(),
+                    StructInstanceValue anidada => anidada.Decl.Name + " {...}",
+                    _ => "nil"
+                })) + " } ",
+
                 _ => throw new SemanticError("Error Semantico: parametros invalidos", null)
             };
         }
 
         output += "\n";
-        visitor.output += output;
-        return visitor.defaultVoid;
+        return output;
+    }
+
+    private static string Element(ValueWrapper value, string error)
+    {
+        return value switch
+        {
+            IntValue i => i.Value.ToString(),
+            FloatValue f => f.Value.ToString(),
+            StringValue s => Regex.Unescape(s.Value.Trim('"')),
+            BoolValue b => b.Value.ToString(),
+            _ => throw new SemanticError(error, null)
+        };
     }
 
 
@@ -95,27 +130,23 @@ public class StrconvAtoi : Invocable
     }
 
     public ValueWrapper Invoke(List<ValueWrapper> args, CompilerVisitor visitor)
+    {
+        return Apply(args);
+    }
+
+    public static ValueWrapper Apply(List<ValueWrapper> args)
     {
         if (args[0] is not StringValue stringValue)
         {
             throw new SemanticError("Error Semantico: argumento invalido valor no aceptado en strconv.Atoi", null);
         }
 
-        try
+        if (NumberParser.TryParseInt(stringValue.Value, out int result))
         {
-            if (int.TryParse(stringValue.Value, out int result))
-            {
-                return new IntValue(result);
-            }
-            else
-            {
-                throw new SemanticError("Error Semantico: la funcion srtcon.Atoi no convierte los valores float", null);
-            }
-        }
-        catch (SemanticError ex)
-        {
-             throw new SemanticError("Error Semantico: argumento invalido valor no aceptado en strconv.Atoi", null);
+            return new IntValue(result);
         }
+
+        throw new SemanticError("Error Semantico: argumento invalido valor no aceptado en strconv.Atoi", null);
     }
 }
 
@@ -127,13 +158,18 @@ public class StrconFloat : Invocable
     }
 
     public ValueWrapper Invoke(List<ValueWrapper> args, CompilerVisitor visitor)
+    {
+        return Apply(args);
+    }
+
+    public static ValueWrapper Apply(List<ValueWrapper> args)
     {
         if (args[0] is not StringValue stringValue)
         {
             throw new SemanticError("Error Semántico: El argumento debe ser una cadena de texto.", null);
         }
 
-        if (decimal.TryParse(stringValue.Value, NumberStyles.Float, CultureInfo.InvariantCulture, out decimal result))
+        if (NumberParser.TryParseFloat(stringValue.Value, out decimal result))
         {
             return new FloatValue(result);
         }
@@ -150,6 +186,11 @@ public class ReflecType : Invocable
     }
 
     public ValueWrapper Invoke(List<ValueWrapper> args, CompilerVisitor visitor)
+    {
+        return Apply(args);
+    }
+
+    public static ValueWrapper Apply(List<ValueWrapper> args)
     {
         if (args[0] is not ValueWrapper value)
         {
@@ -164,11 +205,12 @@ public class ReflecType : Invocable
             BoolValue _ => new StringValue("bool"),
             RuneValue _ => new StringValue("rune"),
             ArrayValue arrayValue => TyperArray(arrayValue),
+            SliceValue slice => new StringValue("[]" + slice.Data.ElementType),
             _ => throw new SemanticError("Error Semantico: argumento invalido", null)
         };
     }
 
-    private StringValue TyperArray(ArrayValue arrayValue)
+    private static StringValue TyperArray(ArrayValue arrayValue)
     {
         if (arrayValue.Value.Count == 0)
         {
@@ -204,6 +246,17 @@ public class SliceIndex : Invocable
 
     public ValueWrapper Invoke(List<ValueWrapper> args, CompilerVisitor visitor)
     {
+        return Apply(args);
+    }
+
+    public static ValueWrapper Apply(List<ValueWrapper> args)
+    {
+        // Los slices tipados buscan directo en su arreglo
+        if (args[0] is SliceValue slice)
+        {
+            return new IntValue(slice.Data.IndexOf(args[1]));
+        }
+
         if (args[0] is not ArrayValue array || args[1] is not ValueWrapper valor)
         {
             throw new SemanticError("Erro Semantico: argumentos invalidos", null);
@@ -233,21 +286,39 @@ public class StringsJoin : Invocable
 
     public ValueWrapper Invoke(List<ValueWrapper> args, CompilerVisitor visitor)
     {
-        if (args[0] is not ArrayValue array || args[1] is not StringValue delimiter)
+        return Apply(args);
+    }
+
+    public static ValueWrapper Apply(List<ValueWrapper> args)
+    {
+        IEnumerable<ValueWrapper> values = args[0] switch
+        {
+            ArrayValue array => array.Value,
+            SliceValue slice => slice.Data.Values(),
+            _ => throw new SemanticError("Error Semantico: argumentos invalidos", null)
+        };
+
+        if (args[1] is not StringValue delimiter)
         {
             throw new SemanticError("Error Semantico: argumentos invalidos", null);
         }
 
 
-        // Unir los elementos del arreglo con el delimitador
-        var output = string.Join(Regex.Unescape(delimiter.Value.Trim('"')), array.Value.Select(v => v switch
+        // Unir los elementos del arreglo con el delimitador. Con las partes en un arreglo,
+        // string.Join suma los largos y reserva el resultado una sola vez
+        var parts = values.Select(v => v switch
         {
             IntValue i => i.Value.ToString(),
             FloatValue f => f.Value.ToString(),
             StringValue s => Regex.Unescape(s.Value.Trim('"')),
             BoolValue b => b.Value.ToString(),
             _ => throw new SemanticError("Error Semantico: Datos invalidos en el arreglo", null)
-        }));
+        }).ToArray();
+
+        var separator = Regex.Unescape(delimiter.Value.Trim('"'));
+        ExecutionBudget.Charge((parts.Sum(part => (long)part.Length) + (long)separator.Length * Math.Max(parts.Length - 1, 0)) * 2);
+
+        var output = string.Join(separator, parts);
 
         return new StringValue(output);
     }
@@ -262,7 +333,20 @@ public class Len : Invocable
 
     public ValueWrapper Invoke(List<ValueWrapper> args, CompilerVisitor visitor)
     {
-    
+        return Apply(args);
+    }
+
+    public static ValueWrapper Apply(List<ValueWrapper> args)
+    {
+        if (args[0] is SliceValue slice)
+        {
+            return new IntValue(slice.Data.Count);
+        }
+        else if (args[0] is FlatMatrixValue flat)
+        {
+            return new IntValue(flat.Data.Rows);
+        }
+
         if (args[0] is not ArrayValue array && args[0] is not MatrixValue matrix)
         {
             throw new SemanticError("Error Semantico: argumento erroneo ", null);
@@ -276,7 +360,7 @@ public class Len : Invocable
             return new IntValue(arrayValue.Value.Count);
         }
 
-        return visitor.defaultVoid;
+        return new VoidValue();
     }
 }
 
@@ -289,7 +373,23 @@ public class Append : Invocable
 
     public ValueWrapper Invoke(List<ValueWrapper> args, CompilerVisitor visitor)
     {
-        if (args[0] is ArrayValue array && args[1] is ValueWrapper value)
+        Apply(args);
+        return visitor.defaultVoid;
+    }
+
+    // Agrega en el mismo arreglo y lo retorna, para que tambien funcione x = append(x, v)
+    public static ValueWrapper Apply(List<ValueWrapper> args)
+    {
+        if (args[0] is SliceValue slice)
+        {
+            slice.Data.Append(args[1], -1);
+        }
+        else if (args[0] is FlatMatrixValue flat && args[1] is SliceValue row)
+        {
+            // La fila se copia al final del arreglo de la matriz
+            flat.Data.AddRow(row.Data, -1);
+        }
+        else if (args[0] is ArrayValue array && args[1] is ValueWrapper value)
         {
             array.Value.Add(value);
         }
@@ -302,6 +402,6 @@ public class Append : Invocable
             throw new SemanticError("Error Semantico: argumentos invalidos", null);
         }
 
-        return visitor.defaultVoid;
+        return args[0];
     }
 }
\ No newline at end of file
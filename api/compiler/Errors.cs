@@ -6,6 +6,7 @@ public class SemanticError : Exception
 {
     private string message;
     private Antlr4.Runtime.IToken? token;
+    private int pos = -1;
 
     public SemanticError(string message, Antlr4.Runtime.IToken? token = null)
     {
@@ -13,12 +14,21 @@ public class SemanticError : Exception
         this.token = token;
     }
 
+    // Errores del AST, la posicion viene empaquetada (ver SourcePos)
+    public SemanticError(string message, int pos)
+    {
+        this.message = message;
+        this.pos = pos;
+    }
+
     public override string Message
     {
         get
         {
             if (token != null)
                 return $"{message} en linea {token.Line}, Columna {token.Column}";
+            else if (pos >= 0)
+                return $"{message} en linea {SourcePos.Line(pos)}, Columna {SourcePos.Column(pos)}";
             else
                 return message; // Evita acceder a un token nulo
         }
@@ -41,3 +51,12 @@ public class SyntaxErrorListener : BaseErrorListener
     }
 }
 
+
+// Programa cortado por el sandbox (ExecutionBudget)
+public class ExecutionLimitException : Exception
+{
+    public ExecutionLimitException(string message, int pos)
+        : base(pos >= 0 ? $"{message} en linea {SourcePos.Line(pos)}, Columna {SourcePos.Column(pos)}" : message)
+    {
+    }
+}
@@ -0,0 +1,161 @@
+using System.Diagnostics;
+
+// Limites de ejecucion para los programas que envian los estudiantes.
+// Se cuentan pasos en los puntos donde un programa puede no terminar: cada vuelta de un ciclo
+// y cada llamada a funcion. El contador se compara en cada paso; el reloj y los bytes reservados
+// solo cada CheckInterval pasos, asi un programa normal casi no paga por el sandbox.
+// La memoria se limita con lo que crece el runtime del lenguaje: los arreglos de slices y matrices,
+// los strings que se juntan y strings.Join cobran sus bytes con Charge al reservarlos.
+// Aparte queda un presupuesto de reservas del hilo, no de memoria viva: suma todo lo que el hilo
+// reservo aunque el GC ya lo haya liberado, y solo sirve de respaldo contra algo que no pase por Charge.
+public sealed class ExecutionBudget
+{
+    private const int CheckInterval = 4096;
+
+    // Limites por defecto, Program.cs los toma de la configuracion (Sandbox)
+    public static long DefaultMaxSteps { get; set; } = 100_000_000;
+    public static int DefaultTimeoutMs { get; set; } = 5_000;
+    public static long DefaultMemoryBudget { get; set; } = 256L * 1024 * 1024;
+    // Respaldo: un ciclo reserva unas decenas de bytes por vuelta en valores temporales, 16 GB deja
+    // llegar al limite de pasos a un programa correcto
+    public static long DefaultAllocationBudget { get; set; } = 16L * 1024 * 1024 * 1024;
+    public static int DefaultMaxDepth { get; set; } = 1_000;
+
+    private readonly long maxSteps;
+    private readonly long deadline;
+    private readonly long memoryBudget;
+    private readonly long allocationLimit;
+    private readonly int maxDepth;
+
+    private long steps;
+    private long nextCheck;
+    private long charged;
+    private int depth;
+
+    // Presupuesto del programa que corre en este hilo, lo fijan los motores en Run
+    [ThreadStatic]
+    private static ExecutionBudget? current;
+
+    public ExecutionBudget(long maxSteps, TimeSpan timeout, long memoryBudget, long allocationBudget, int maxDepth)
+    {
+        this.maxSteps = maxSteps;
+        this.memoryBudget = memoryBudget;
+        this.maxDepth = maxDepth;
+
+        deadline = timeout == Timeout.InfiniteTimeSpan
+            ? long.MaxValue
+            : Stopwatch.GetTimestamp() + (long)(timeout.TotalSeconds * Stopwatch.Frequency);
+
+        // Los bytes se miden en el hilo que ejecuta, a partir de lo ya reservado al crear el limite
+        long allocated = GC.GetAllocatedBytesForCurrentThread();
+        allocationLimit = allocationBudget >= long.MaxValue - allocated ? long.MaxValue : allocated + allocationBudget;
+
+        nextCheck = NextCheck();
+    }
+
+    public static ExecutionBudget FromDefaults()
+    {
+        return new ExecutionBudget(DefaultMaxSteps, TimeSpan.FromMilliseconds(DefaultTimeoutMs), DefaultMemoryBudget, DefaultAllocationBudget, DefaultMaxDepth);
+    }
+
+    // Sin limites de pasos, tiempo ni reservas; la profundidad se limita igual para no botar el proceso
+    public static ExecutionBudget Unlimited()
+    {
+        return new ExecutionBudget(long.MaxValue, Timeout.InfiniteTimeSpan, long.MaxValue, long.MaxValue, DefaultMaxDepth);
+    }
+
+    public long Steps => steps;
+
+    // Deja este presupuesto como el del hilo y devuelve el anterior, para restaurarlo al terminar
+    public ExecutionBudget? Activate()
+    {
+        var previous = current;
+        current = this;
+        return previous;
+    }
+
+    public static void Restore(ExecutionBudget? previous)
+    {
+        current = previous;
+    }
+
+    // Bytes que el runtime va a reservar para crecer. El exceso se reporta en el siguiente paso, con
+    // la linea del programa; una reserva que pasa el doble del limite se corta antes de hacerla
+    public static void Charge(long bytes)
+    {
+        var budget = current;
+        if (budget == null)
+        {
+            return;
+        }
+
+        budget.charged += bytes;
+        if (budget.charged > budget.memoryBudget)
+        {
+            if (budget.charged - budget.memoryBudget > budget.memoryBudget)
+            {
+                throw new ExecutionLimitException("Error de ejecucion: se excedio la memoria maxima del programa", -1);
+            }
+
+            budget.nextCheck = budget.steps;
+        }
+    }
+
+    // Vuelta de un ciclo
+    public void Step(int pos)
+    {
+        if (++steps >= nextCheck)
+        {
+            Check(pos);
+        }
+    }
+
+    // Entrada a una funcion, Exit al salir
+    public void Enter(int pos)
+    {
+        if (++depth > maxDepth)
+        {
+            depth--;
+            throw new ExecutionLimitException($"Error de ejecucion: se excedio la profundidad maxima de {maxDepth} llamadas", pos);
+        }
+
+        Step(pos);
+    }
+
+    public void Exit()
+    {
+        depth--;
+    }
+
+    private void Check(int pos)
+    {
+        if (steps > maxSteps)
+        {
+            throw new ExecutionLimitException($"Error de ejecucion: se excedio el limite de {maxSteps} pasos", pos);
+        }
+
+        if (Stopwatch.GetTimestamp() > deadline)
+        {
+            throw new ExecutionLimitException("Error de ejecucion: se excedio el tiempo maximo de ejecucion", pos);
+        }
+
+        if (charged > memoryBudget)
+        {
+            throw new ExecutionLimitException("Error de ejecucion: se excedio la memoria maxima del programa", pos);
+        }
+
+        if (GC.GetAllocatedBytesForCurrentThread() > allocationLimit)
+        {
+            throw new ExecutionLimitException("Error de ejecucion: se excedio el limite de memoria reservada por el programa", pos);
+        }
+
+        nextCheck = NextCheck();
+    }
+
+    // Siguiente revision completa, o justo al pasar el limite de pasos si llega antes
+    private long NextCheck()
+    {
+        long next = steps + CheckInterval;
+        return next > maxSteps ? maxSteps + 1 : next;
+    }
+}
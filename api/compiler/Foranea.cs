@@ -39,6 +39,8 @@ public class ForeneaFuncion : Invocable
             }
         }
 
+        visitor.budget.Enter(SourcePos.Pack(context.Start));
+
         try
         {
             foreach (var statement in context.dcl())
@@ -51,6 +53,10 @@ public class ForeneaFuncion : Invocable
             visitor.currentEnvironment = beforEnv;
             return e.Value;
         }
+        finally
+        {
+            visitor.budget.Exit();
+        }
 
         visitor.currentEnvironment = beforEnv;
         return visitor.defaultVoid;
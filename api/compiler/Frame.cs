@@ -0,0 +1,23 @@
+// Frame de una funcion para el interprete del AST.
+// Las variables se acceden por (profundidad, slot) que se resuelven en el lowering,
+// asi no hay busqueda por nombre en tiempo de ejecucion.
+public sealed class Frame
+{
+    public readonly ValueWrapper?[] Slots;
+    public readonly Frame? Parent;
+
+    // Valores int, bool y rune sin caja, por slot (ver FuncDecl.SlotTypes).
+    // Solo el backend compilado los usa; vacio si la funcion no tiene slots de esos tipos
+    public readonly long[] Scalars;
+
+    public Frame(int size, Frame? parent) : this(size, parent, false)
+    {
+    }
+
+    public Frame(int size, Frame? parent, bool scalars)
+    {
+        Slots = new ValueWrapper?[size];
+        Parent = parent;
+        Scalars = scalars ? new long[size] : Array.Empty<long>();
+    }
+}
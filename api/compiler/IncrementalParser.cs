@@ -0,0 +1,183 @@
+using analyzer;
+using Antlr4.Runtime;
+using Antlr4.Runtime.Misc;
+using Antlr4.Runtime.Tree;
+
+// Reparseo incremental para el editor: guarda el subarbol (DclContext) de cada declaracion
+// de primer nivel con su rango en el texto. Una edicion solo vuelve a pasar por el lexer y el
+// parser las declaraciones que toca, mas una vecina de cada lado para que los limites entre
+// declaraciones sean los mismos que en un parseo completo. Las demas se reutilizan.
+public class IncrementalParser
+{
+    private sealed class Declaration
+    {
+        public readonly LanguageParser.DclContext Context;
+        public int Start;
+        public int Stop;
+
+        public Declaration(LanguageParser.DclContext context, int start, int stop)
+        {
+            Context = context;
+            Start = start;
+            Stop = stop;
+        }
+    }
+
+    private string text = "";
+    private List<Declaration> declarations = new List<Declaration>();
+
+    public string Text => text;
+
+    public int Count => declarations.Count;
+
+    // Declaraciones que se parsearon en la ultima edicion y si hizo falta parsear todo
+    public int Reparsed { get; private set; }
+    public bool FullReparse { get; private set; }
+
+    public void Open(string code)
+    {
+        text = code;
+        declarations = new List<Declaration>();
+
+        try
+        {
+            declarations = ParseRegion(code, 0, 1, 0);
+            Reparsed = declarations.Count;
+            FullReparse = true;
+        }
+        catch (ParseCanceledException)
+        {
+            // Sin declaraciones la siguiente edicion vuelve a parsear todo el texto
+            declarations = new List<Declaration>();
+            throw;
+        }
+    }
+
+    // Reemplaza length caracteres desde offset por inserted
+    public void Edit(int offset, int length, string inserted)
+    {
+        if (offset < 0 || length < 0 || offset + length > text.Length)
+        {
+            throw new ArgumentOutOfRangeException(nameof(offset), "La edicion esta fuera del texto");
+        }
+
+        string removed = text.Substring(offset, length);
+        string newText = text.Remove(offset, length).Insert(offset, inserted);
+        int delta = inserted.Length - length;
+        int lineDelta = Count(inserted, '\n') - Count(removed, '\n');
+
+        // Declaraciones tocadas por la edicion, un caracter pegado al final tambien cuenta
+        int first = declarations.FindIndex(d => d.Stop + 1 >= offset);
+        if (first < 0)
+        {
+            first = declarations.Count;
+        }
+        int last = declarations.FindLastIndex(d => d.Start <= offset + length);
+
+        // Una vecina de cada lado
+        first = Math.Max(first - 1, 0);
+        last = Math.Min(last + 1, declarations.Count - 1);
+
+        if (first == 0 && last == declarations.Count - 1)
+        {
+            Open(newText);
+            return;
+        }
+
+        int regionStart = first == 0 ? 0 : declarations[first - 1].Stop + 1;
+        int regionEnd = last == declarations.Count - 1 ? text.Length : declarations[last + 1].Start;
+
+        List<Declaration> region;
+        try
+        {
+            var (line, column) = first == 0 ? (1, 0) : PositionAfter(declarations[first - 1], newText);
+            region = ParseRegion(newText.Substring(regionStart, regionEnd + delta - regionStart), regionStart, line, column);
+        }
+        catch (ParseCanceledException)
+        {
+            // La edicion cambio los limites entre declaraciones, se parsea todo y se reportan los errores
+            Open(newText);
+            return;
+        }
+
+        // Las declaraciones siguientes se corren en el texto y en las lineas
+        for (int i = last + 1; i < declarations.Count; i++)
+        {
+            var declaration = declarations[i];
+            declaration.Start += delta;
+            declaration.Stop += delta;
+
+            if (lineDelta != 0)
+            {
+                ShiftLines(declaration.Context, lineDelta);
+            }
+        }
+
+        declarations.RemoveRange(first, last - first + 1);
+        declarations.InsertRange(first, region);
+
+        text = newText;
+        Reparsed = region.Count;
+        FullReparse = false;
+    }
+
+    private static List<Declaration> ParseRegion(string code, int offset, int line, int column)
+    {
+        var lexer = new LanguageLexer(new AntlrInputStream(code));
+        lexer.Line = line;
+        lexer.Column = column;
+
+        lexer.RemoveErrorListeners();
+        lexer.AddErrorListener(new LexicalErrorListener());
+
+        var tokens = new CommonTokenStream(lexer);
+        tokens.Fill();
+
+        var tree = ParserDriver.Parse(new LanguageParser(tokens), tokens);
+
+        return tree.dcl()
+            .Select(dcl => new Declaration(dcl, dcl.Start.StartIndex + offset, dcl.Stop.StopIndex + offset))
+            .ToList();
+    }
+
+    // Linea y columna del primer caracter despues de una declaracion que no cambio
+    private static (int Line, int Column) PositionAfter(Declaration declaration, string newText)
+    {
+        var stop = declaration.Context.Stop;
+        int line = stop.Line + Count(stop.Text, '\n');
+        int lineStart = newText.LastIndexOf('\n', declaration.Stop) + 1;
+
+        return (line, declaration.Stop + 1 - lineStart);
+    }
+
+    private static void ShiftLines(IParseTree tree, int lineDelta)
+    {
+        if (tree is ITerminalNode terminal)
+        {
+            if (terminal.Symbol is CommonToken token)
+            {
+                token.Line += lineDelta;
+            }
+            return;
+        }
+
+        for (int i = 0; i < tree.ChildCount; i++)
+        {
+            ShiftLines(tree.GetChild(i), lineDelta);
+        }
+    }
+
+    private static int Count(string value, char c)
+    {
+        int count = 0;
+        foreach (char ch in value)
+        {
+            if (ch == c)
+            {
+                count++;
+            }
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,93 @@
+// Tabla de saltos de un switch cuyos case son todos literales int, rune o string.
+// Devuelve la posicion del case que gana sin comparar uno por uno: un arreglo directo cuando
+// los case son int cercanos entre si, y un diccionario en los demas casos.
+// Si hay case repetidos gana el primero, igual que al recorrerlos en orden.
+public sealed class JumpTable
+{
+    // Arreglo directo si el rango de valores no es mas de este factor del numero de case
+    private const int MaxSpread = 4;
+
+    private readonly Dictionary<ValueWrapper, int> indices;
+    private readonly int[]? dense;
+    private readonly int min;
+
+    private JumpTable(Dictionary<ValueWrapper, int> indices, int[]? dense, int min)
+    {
+        this.indices = indices;
+        this.dense = dense;
+        this.min = min;
+    }
+
+    // null si algun case no es literal, el switch se evalua en orden como antes
+    public static JumpTable? For(SwitchCase[] cases)
+    {
+        if (cases.Length == 0)
+        {
+            return null;
+        }
+
+        var indices = new Dictionary<ValueWrapper, int>(cases.Length);
+        bool allInts = true;
+        long min = long.MaxValue;
+        long max = long.MinValue;
+
+        for (int i = 0; i < cases.Length; i++)
+        {
+            ValueWrapper? value = cases[i].Value switch
+            {
+                IntLiteral e => new IntValue(e.Value),
+                RuneLiteral e => new RuneValue(e.Value),
+                StringLiteral e => new StringValue(e.Value),
+                _ => null
+            };
+
+            if (value == null)
+            {
+                return null;
+            }
+
+            indices.TryAdd(value, i);
+
+            if (value is IntValue n)
+            {
+                min = Math.Min(min, n.Value);
+                max = Math.Max(max, n.Value);
+            }
+            else
+            {
+                allInts = false;
+            }
+        }
+
+        int[]? dense = null;
+        if (allInts && max - min < (long)cases.Length * MaxSpread)
+        {
+            dense = new int[max - min + 1];
+            Array.Fill(dense, -1);
+
+            foreach (var (value, index) in indices)
+            {
+                dense[((IntValue)value).Value - min] = index;
+            }
+        }
+
+        return new JumpTable(indices, dense, allInts ? (int)min : 0);
+    }
+
+    // Posicion del case igual al sujeto, -1 para ir al default
+    public int Find(ValueWrapper subject)
+    {
+        if (dense != null)
+        {
+            if (subject is not IntValue n)
+            {
+                return -1;
+            }
+
+            long offset = (long)n.Value - min;
+            return (ulong)offset < (ulong)dense.Length ? dense[offset] : -1;
+        }
+
+        return indices.TryGetValue(subject, out int index) ? index : -1;
+    }
+}
@@ -0,0 +1,237 @@
+using System.IO.MemoryMappedFiles;
+using System.Text;
+using Antlr4.Runtime;
+using Antlr4.Runtime.Misc;
+
+// CharStream de ANTLR que decodifica UTF-8 directo desde un archivo mapeado en memoria.
+// Igual que UnbufferedCharStream solo guarda los caracteres desde la marca mas antigua,
+// asi el lexer no necesita el programa completo en un string.
+// El lexer debe copiar el texto de los tokens (CommonTokenFactory(true)).
+public sealed class MappedCharStream : ICharStream, IDisposable
+{
+    private readonly MemoryMappedFile? file;
+    private readonly MemoryMappedViewAccessor? view;
+    private readonly long length;
+    private long bytePos;
+
+    // Caracteres desde la marca mas antigua, data[p] es LA(1)
+    private int[] data = new int[256];
+    private int n;
+    private int p;
+    private int numMarkers;
+    private int lastChar = IntStreamConstants.EOF;
+    private int lastCharBufferStart = IntStreamConstants.EOF;
+    private int currentCharIndex;
+
+    public string SourceName { get; }
+
+    public MappedCharStream(string path)
+    {
+        SourceName = path;
+        length = new FileInfo(path).Length;
+
+        // Un archivo vacio no se puede mapear, se queda sin vista y LA(1) es EOF
+        if (length > 0)
+        {
+            file = MemoryMappedFile.CreateFromFile(path, FileMode.Open, null, length, MemoryMappedFileAccess.Read);
+            view = file.CreateViewAccessor(0, length, MemoryMappedFileAccess.Read);
+        }
+
+        // BOM de UTF-8
+        if (view != null && length >= 3 && view.ReadByte(0) == 0xEF && view.ReadByte(1) == 0xBB && view.ReadByte(2) == 0xBF)
+        {
+            bytePos = 3;
+        }
+
+        Fill(1);
+    }
+
+    public int Index => currentCharIndex;
+
+    // El tamano no se conoce sin decodificar todo el archivo
+    public int Size => throw new NotSupportedException("MappedCharStream no conoce su tamano");
+
+    private int BufferStartIndex => currentCharIndex - p;
+
+    public void Consume()
+    {
+        if (LA(1) == IntStreamConstants.EOF)
+        {
+            throw new InvalidOperationException("cannot consume EOF");
+        }
+
+        lastChar = data[p];
+
+        // Sin marcas no hace falta conservar lo ya consumido
+        if (p == n - 1 && numMarkers == 0)
+        {
+            n = 0;
+            p = -1;
+            lastCharBufferStart = lastChar;
+        }
+
+        p++;
+        currentCharIndex++;
+        Sync(1);
+    }
+
+    public int LA(int i)
+    {
+        if (i == -1)
+        {
+            return lastChar;
+        }
+
+        Sync(i);
+        int index = p + i - 1;
+        if (index < 0)
+        {
+            throw new ArgumentOutOfRangeException(nameof(i));
+        }
+
+        return index >= n ? IntStreamConstants.EOF : data[index];
+    }
+
+    public int Mark()
+    {
+        if (numMarkers == 0)
+        {
+            lastCharBufferStart = lastChar;
+        }
+
+        int mark = -numMarkers - 1;
+        numMarkers++;
+        return mark;
+    }
+
+    public void Release(int marker)
+    {
+        if (marker != -numMarkers)
+        {
+            throw new InvalidOperationException("release() called with an invalid marker.");
+        }
+
+        numMarkers--;
+        if (numMarkers == 0 && p > 0)
+        {
+            // Se descarta lo que esta antes de LA(1)
+            Array.Copy(data, p, data, 0, n - p);
+            n -= p;
+            p = 0;
+            lastCharBufferStart = lastChar;
+        }
+    }
+
+    public void Seek(int index)
+    {
+        if (index == currentCharIndex)
+        {
+            return;
+        }
+
+        if (index > currentCharIndex)
+        {
+            Sync(index - currentCharIndex);
+            index = Math.Min(index, BufferStartIndex + n - 1);
+        }
+
+        int i = index - BufferStartIndex;
+        if (i < 0 || i >= n)
+        {
+            throw new ArgumentOutOfRangeException(nameof(index), "seek to index outside buffer: " + index);
+        }
+
+        p = i;
+        currentCharIndex = index;
+        lastChar = p == 0 ? lastCharBufferStart : data[p - 1];
+    }
+
+    public string GetText(Interval interval)
+    {
+        int start = interval.a - BufferStartIndex;
+        int stop = interval.b - BufferStartIndex;
+
+        if (interval.a < 0 || start < 0 || stop >= n)
+        {
+            throw new NotSupportedException("interval " + interval + " outside buffer");
+        }
+
+        var text = new StringBuilder(stop - start + 1);
+        for (int i = start; i <= stop; i++)
+        {
+            text.Append(char.ConvertFromUtf32(data[i]));
+        }
+
+        return text.ToString();
+    }
+
+    public void Dispose()
+    {
+        view?.Dispose();
+        file?.Dispose();
+    }
+
+    private void Sync(int want)
+    {
+        int need = p + want - n;
+        if (need > 0)
+        {
+            Fill(need);
+        }
+    }
+
+    private void Fill(int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            if (n > 0 && data[n - 1] == IntStreamConstants.EOF)
+            {
+                return;
+            }
+
+            if (n == data.Length)
+            {
+                Array.Resize(ref data, data.Length * 2);
+            }
+
+            data[n++] = NextCodePoint();
+        }
+    }
+
+    // Decodifica el siguiente caracter UTF-8, las secuencias invalidas dan U+FFFD
+    private int NextCodePoint()
+    {
+        if (bytePos >= length)
+        {
+            return IntStreamConstants.EOF;
+        }
+
+        int b0 = view!.ReadByte(bytePos++);
+        if (b0 < 0x80)
+        {
+            return b0;
+        }
+
+        int extra = b0 >= 0xF0 ? 3 : b0 >= 0xE0 ? 2 : b0 >= 0xC0 ? 1 : -1;
+        if (extra < 0 || bytePos + extra > length)
+        {
+            return 0xFFFD;
+        }
+
+        int codePoint = b0 & (0x3F >> extra);
+        for (int i = 0; i < extra; i++)
+        {
+            int b = view.ReadByte(bytePos);
+            if ((b & 0xC0) != 0x80)
+            {
+                return 0xFFFD;
+            }
+
+            codePoint = (codePoint << 6) | (b & 0x3F);
+            bytePos++;
+        }
+
+        // Sustitutos sueltos o fuera de rango
+        return codePoint > 0x10FFFF || (codePoint >= 0xD800 && codePoint <= 0xDFFF) ? 0xFFFD : codePoint;
+    }
+}
@@ -0,0 +1,134 @@
+using System.Globalization;
+
+// Conversiones de strconv.Atoi y strconv.ParseFloat leyendo directo los caracteres del string,
+// sin subcadenas ni excepciones: un valor invalido solo devuelve false.
+public static class NumberParser
+{
+    // [espacios] [+|-] digitos [espacios]
+    public static bool TryParseInt(string text, out int result)
+    {
+        result = 0;
+
+        int i = SkipSpaces(text, 0);
+        int end = TrimEnd(text, i);
+
+        bool negative = false;
+        if (i < end && (text[i] == '-' || text[i] == '+'))
+        {
+            negative = text[i] == '-';
+            i++;
+        }
+
+        if (i == end)
+        {
+            return false;
+        }
+
+        // Se acumula en negativo para que int.MinValue tambien quepa
+        int value = 0;
+        for (; i < end; i++)
+        {
+            int digit = text[i] - '0';
+            if ((uint)digit > 9)
+            {
+                return false;
+            }
+
+            if (value < (int.MinValue + digit) / 10)
+            {
+                return false;
+            }
+
+            value = value * 10 - digit;
+        }
+
+        if (!negative)
+        {
+            if (value == int.MinValue)
+            {
+                return false;
+            }
+
+            value = -value;
+        }
+
+        result = value;
+        return true;
+    }
+
+    // Camino rapido para [+|-] digitos [. digitos] con hasta 18 digitos: la mantisa cabe en un long
+    // y el decimal se arma con su escala, sin redondeo. Exponentes, mas digitos o separadores
+    // raros pasan a decimal.TryParse sobre el mismo span, con las reglas de siempre.
+    public static bool TryParseFloat(string text, out decimal result)
+    {
+        int i = SkipSpaces(text, 0);
+        int end = TrimEnd(text, i);
+
+        bool negative = false;
+        if (i < end && (text[i] == '-' || text[i] == '+'))
+        {
+            negative = text[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = -1;
+        int start = i;
+
+        for (; i < end; i++)
+        {
+            char c = text[i];
+            if (c == '.' && scale < 0)
+            {
+                scale = 0;
+                continue;
+            }
+
+            int digit = c - '0';
+            if ((uint)digit > 9 || digits == 18)
+            {
+                return decimal.TryParse(text.AsSpan(), NumberStyles.Float, CultureInfo.InvariantCulture, out result);
+            }
+
+            mantissa = mantissa * 10 + digit;
+            digits++;
+
+            if (scale >= 0)
+            {
+                scale++;
+            }
+        }
+
+        // "", "-", "." no son numeros
+        if (digits == 0 || i == start)
+        {
+            result = 0;
+            return false;
+        }
+
+        result = new decimal((int)mantissa, (int)(mantissa >> 32), 0, negative, (byte)Math.Max(scale, 0));
+        return true;
+    }
+
+    private static int SkipSpaces(string text, int i)
+    {
+        while (i < text.Length && char.IsWhiteSpace(text[i]))
+        {
+            i++;
+        }
+
+        return i;
+    }
+
+    private static int TrimEnd(string text, int start)
+    {
+        int end = text.Length;
+        while (end > start && char.IsWhiteSpace(text[end - 1]))
+        {
+            end--;
+        }
+
+        return end;
+    }
+}
@@ -0,0 +1,87 @@
+using System.Text;
+
+// Destino de fmt.Println en los interpretes del AST
+public abstract class OutputSink
+{
+    public abstract void Write(string text);
+
+    public virtual void Flush()
+    {
+    }
+
+    // Texto acumulado, vacio si la salida ya se envio
+    public virtual string Text => "";
+}
+
+// Guarda toda la salida para devolverla al terminar (POST /compile)
+public sealed class StringOutputSink : OutputSink
+{
+    private readonly StringBuilder text = new StringBuilder();
+
+    public override void Write(string value)
+    {
+        text.Append(value);
+    }
+
+    public override string Text => text.ToString();
+}
+
+// Codifica la salida en UTF-8 sobre un buffer de tamano fijo y lo escribe en el stream cada vez
+// que se llena, la memoria no crece con la cantidad de lineas y el cliente recibe los primeros
+// bytes mientras el programa sigue corriendo
+public sealed class StreamOutputSink : OutputSink
+{
+    // Lo maximo que ocupa un caracter en UTF-8, con un sustituto pendiente del llamado anterior
+    private const int MaxCharBytes = 8;
+
+    private readonly Stream stream;
+    private readonly Encoder encoder = new UTF8Encoding(false).GetEncoder();
+    private readonly byte[] buffer;
+    private int length;
+
+    public long BytesWritten { get; private set; }
+
+    public StreamOutputSink(Stream stream, int bufferSize = 8192)
+    {
+        this.stream = stream;
+        buffer = new byte[Math.Max(bufferSize, MaxCharBytes * 2)];
+    }
+
+    public override void Write(string text)
+    {
+        ReadOnlySpan<char> chars = text;
+
+        while (!chars.IsEmpty)
+        {
+            if (buffer.Length - length < MaxCharBytes)
+            {
+                FlushBuffer();
+            }
+
+            encoder.Convert(chars, buffer.AsSpan(length), false, out int charsUsed, out int bytesUsed, out _);
+            length += bytesUsed;
+            chars = chars.Slice(charsUsed);
+        }
+    }
+
+    public override void Flush()
+    {
+        encoder.Convert(ReadOnlySpan<char>.Empty, buffer.AsSpan(length), true, out _, out int bytesUsed, out _);
+        length += bytesUsed;
+
+        FlushBuffer();
+        stream.Flush();
+    }
+
+    private void FlushBuffer()
+    {
+        if (length == 0)
+        {
+            return;
+        }
+
+        stream.Write(buffer, 0, length);
+        BytesWritten += length;
+        length = 0;
+    }
+}
@@ -0,0 +1,132 @@
+using analyzer;
+using Antlr4.Runtime;
+using Antlr4.Runtime.Misc;
+
+// Parseo en paralelo de las declaraciones de primer nivel.
+// Con `program: dcl*` cada 'func' o 'type' fuera de llaves empieza una declaracion que no
+// depende de las demas: se tokeniza todo una vez, se corta la lista de tokens en esos puntos
+// y cada pedazo se parsea con su propio LanguageParser en el pool de hilos.
+// Los tokens conservan su linea y columna, asi los subarboles son iguales a los de un parseo completo.
+public static class ParallelParser
+{
+    private static readonly int funcToken = TokenType("'func'");
+    private static readonly int typeToken = TokenType("'type'");
+    private static readonly int openBrace = TokenType("'{'");
+    private static readonly int closeBrace = TokenType("'}'");
+
+    // Codigo mas corto que esto se parsea en un solo hilo, repartirlo cuesta mas de lo que ahorra
+    public static int MinLength { get; set; } = 64 * 1024;
+
+    // Tokens minimos por pedazo, las declaraciones chicas seguidas se juntan
+    public static int MinChunkTokens { get; set; } = 4096;
+
+    public static LanguageParser.ProgramContext Parse(string code)
+    {
+        var lexer = new LanguageLexer(new AntlrInputStream(code));
+        lexer.RemoveErrorListeners();
+        lexer.AddErrorListener(new LexicalErrorListener());
+
+        var tokens = new CommonTokenStream(lexer);
+        tokens.Fill();
+
+        var chunks = Split(tokens.GetTokens());
+        if (chunks.Count < 2)
+        {
+            return ParserDriver.Parse(new LanguageParser(tokens), tokens);
+        }
+
+        var trees = new LanguageParser.ProgramContext?[chunks.Count];
+        bool failed = false;
+
+        Parallel.For(0, chunks.Count, (i, state) =>
+        {
+            var chunkTokens = new CommonTokenStream(new ListTokenSource(chunks[i]));
+            chunkTokens.Fill();
+
+            try
+            {
+                trees[i] = ParserDriver.Parse(new LanguageParser(chunkTokens), chunkTokens);
+            }
+            catch (ParseCanceledException)
+            {
+                failed = true;
+                state.Stop();
+            }
+        });
+
+        // Un error se reporta con el parseo completo para que el mensaje sea el mismo que en un solo hilo
+        if (failed)
+        {
+            tokens.Seek(0);
+            return ParserDriver.Parse(new LanguageParser(tokens), tokens);
+        }
+
+        var program = new LanguageParser.ProgramContext(null, 0);
+        foreach (var tree in trees)
+        {
+            foreach (var dcl in tree!.dcl())
+            {
+                program.AddChild(dcl);
+            }
+        }
+
+        return program;
+    }
+
+    // Pre-escaneo de llaves: corta antes de cada 'func' o 'type' de profundidad 0
+    // cuando el pedazo actual ya tiene suficientes tokens. El EOF no entra en ningun pedazo.
+    // Cada pedazo recibe copias: su CommonTokenStream renumera TokenIndex, y el parseo completo
+    // de respaldo arma los mensajes de error con los indices originales
+    private static List<List<IToken>> Split(IList<IToken> tokens)
+    {
+        var chunks = new List<List<IToken>>();
+        var current = new List<IToken>();
+        int depth = 0;
+
+        foreach (var token in tokens)
+        {
+            if (token.Type == TokenConstants.EOF)
+            {
+                break;
+            }
+
+            if (depth == 0 && (token.Type == funcToken || token.Type == typeToken) && current.Count >= MinChunkTokens)
+            {
+                chunks.Add(current);
+                current = new List<IToken>();
+            }
+
+            if (token.Type == openBrace)
+            {
+                depth++;
+            }
+            else if (token.Type == closeBrace && depth > 0)
+            {
+                depth--;
+            }
+
+            current.Add(new CommonToken(token));
+        }
+
+        if (current.Count > 0)
+        {
+            chunks.Add(current);
+        }
+
+        return chunks;
+    }
+
+    private static int TokenType(string literal)
+    {
+        var vocabulary = LanguageLexer.DefaultVocabulary;
+        for (int type = 1; type <= vocabulary.MaxTokenType; type++)
+        {
+            if (vocabulary.GetLiteralName(type) == literal)
+            {
+                return type;
+            }
+        }
+
+        throw new InvalidOperationException("Token no encontrado en la gramatica: " + literal);
+    }
+}
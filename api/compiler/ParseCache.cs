@@ -0,0 +1,138 @@
+using System.Security.Cryptography;
+using System.Text;
+
+// Cache de programas ya parseados y bajados a AST, la llave es el SHA-256 del codigo fuente.
+// Un programa repetido no vuelve a pasar por el lexer, el parser ni el lowering.
+// Se desalojan los menos usados recientemente cuando se pasa del limite de entradas o de peso;
+// el peso de una entrada es el largo del codigo, que crece junto con el AST.
+public class ParseCache
+{
+    private sealed class Entry
+    {
+        public readonly string Key;
+        public readonly AstProgram Program;
+        public readonly long Weight;
+
+        public Entry(string key, AstProgram program, long weight)
+        {
+            Key = key;
+            Program = program;
+            Weight = weight;
+        }
+    }
+
+    public static ParseCache Shared { get; set; } = new ParseCache(512, 16 * 1024 * 1024);
+
+    private readonly object sync = new object();
+    private readonly Dictionary<string, LinkedListNode<Entry>> entries = new Dictionary<string, LinkedListNode<Entry>>();
+    private readonly LinkedList<Entry> recent = new LinkedList<Entry>();
+
+    private readonly int maxEntries;
+    private readonly long maxWeight;
+    private long weight;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ParseCache(int maxEntries, long maxWeight)
+    {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+    }
+
+    public long Hits => Interlocked.Read(ref hits);
+    public long Misses => Interlocked.Read(ref misses);
+    public long Evictions => Interlocked.Read(ref evictions);
+
+    public int Count
+    {
+        get
+        {
+            lock (sync)
+            {
+                return entries.Count;
+            }
+        }
+    }
+
+    public long Weight
+    {
+        get
+        {
+            lock (sync)
+            {
+                return weight;
+            }
+        }
+    }
+
+    // Los errores de sintaxis o de lowering no se guardan, se lanzan como siempre
+    public AstProgram GetOrLower(string code)
+    {
+        string key = Key(code);
+
+        lock (sync)
+        {
+            if (entries.TryGetValue(key, out var node))
+            {
+                recent.Remove(node);
+                recent.AddFirst(node);
+                Interlocked.Increment(ref hits);
+                return node.Value.Program;
+            }
+        }
+
+        Interlocked.Increment(ref misses);
+
+        // El parseo queda fuera del lock, dos pedidos iguales a la vez solo parsean de mas
+        var program = AstLowering.Lower(ParserDriver.Parse(code));
+        Add(key, program, code.Length);
+
+        return program;
+    }
+
+    public void Clear()
+    {
+        lock (sync)
+        {
+            entries.Clear();
+            recent.Clear();
+            weight = 0;
+        }
+    }
+
+    private void Add(string key, AstProgram program, long entryWeight)
+    {
+        // Un programa mas pesado que todo el cache no se guarda
+        if (entryWeight > maxWeight)
+        {
+            return;
+        }
+
+        lock (sync)
+        {
+            if (entries.ContainsKey(key))
+            {
+                return;
+            }
+
+            entries[key] = recent.AddFirst(new Entry(key, program, entryWeight));
+            weight += entryWeight;
+
+            while (entries.Count > maxEntries || weight > maxWeight)
+            {
+                var last = recent.Last!;
+                recent.RemoveLast();
+                entries.Remove(last.Value.Key);
+                weight -= last.Value.Weight;
+                Interlocked.Increment(ref evictions);
+            }
+        }
+    }
+
+    private static string Key(string code)
+    {
+        return Convert.ToHexString(SHA256.HashData(Encoding.UTF8.GetBytes(code)));
+    }
+}
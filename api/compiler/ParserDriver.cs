@@ -0,0 +1,113 @@
+using analyzer;
+using Antlr4.Runtime;
+using Antlr4.Runtime.Atn;
+using Antlr4.Runtime.Misc;
+
+// Parseo en dos etapas: primero SLL (rapido) y solo si falla se reintenta con LL completo
+public static class ParserDriver
+{
+    // El listener no guarda estado, todos los parsers comparten el mismo
+    private static readonly SyntaxErrorListener syntaxErrors = new SyntaxErrorListener();
+
+    private static long sllParses;
+    private static long llFallbacks;
+
+    // Programas que se resolvieron solo con SLL
+    public static long SllParses => Interlocked.Read(ref sllParses);
+
+    // Programas que necesitaron la segunda pasada en LL
+    public static long LlFallbacks => Interlocked.Read(ref llFallbacks);
+
+    public static LanguageParser.ProgramContext Parse(string code)
+    {
+        int dfaStates = ParserWarmup.DfaStates();
+
+        // Los archivos grandes se reparten por declaraciones entre los nucleos
+        if (code.Length >= ParallelParser.MinLength)
+        {
+            var program = ParallelParser.Parse(code);
+            if (ParserWarmup.DfaStates() > dfaStates)
+            {
+                ParserWarmup.Record(code);
+            }
+
+            return program;
+        }
+
+        // El lexer y el parser salen del pool ya configurados
+        var entry = ParserPool.Shared.Rent();
+        LanguageParser.ProgramContext tree;
+
+        try
+        {
+            // Se tokeniza todo antes de parsear para que un error lexico no se confunda con un fallo de SLL
+            entry.Reset(code);
+            tree = Parse(entry.Parser, entry.Tokens);
+        }
+        finally
+        {
+            ParserPool.Shared.Return(entry);
+        }
+
+        // Si el programa agrego estados al DFA se guarda para el precalentamiento del siguiente arranque
+        if (ParserWarmup.DfaStates() > dfaStates)
+        {
+            ParserWarmup.Record(code);
+        }
+
+        return tree;
+    }
+
+    // Parsea un archivo sin cargarlo en un string: el lexer lee del archivo mapeado en memoria
+    // y el parser consume tokens sin guardar la lista completa.
+    // Un stream sin buffer no se puede rebobinar, por eso se parsea directamente en LL.
+    // Con buildTree = false solo se valida la sintaxis y la memoria extra es constante.
+    public static LanguageParser.ProgramContext ParseFile(string path, bool buildTree = true)
+    {
+        using var input = new MappedCharStream(path);
+        var lexer = new LanguageLexer(input);
+
+        lexer.RemoveErrorListeners();
+        lexer.AddErrorListener(new LexicalErrorListener());
+
+        // El texto de cada token se copia porque los caracteres se descartan al avanzar
+        lexer.TokenFactory = new CommonTokenFactory(true);
+
+        var parser = new LanguageParser(new UnbufferedTokenStream(lexer));
+        parser.BuildParseTree = buildTree;
+        parser.RemoveErrorListeners();
+        parser.AddErrorListener(new SyntaxErrorListener());
+        parser.Interpreter.PredictionMode = PredictionMode.LL;
+
+        return parser.program();
+    }
+
+    public static LanguageParser.ProgramContext Parse(LanguageParser parser, ITokenStream tokens)
+    {
+        // Etapa 1: SLL sin listeners, el primer error cancela el parseo
+        parser.RemoveErrorListeners();
+        parser.BuildParseTree = true;
+        parser.ErrorHandler = new BailErrorStrategy();
+        parser.Interpreter.PredictionMode = PredictionMode.SLL;
+
+        try
+        {
+            var tree = parser.program();
+            Interlocked.Increment(ref sllParses);
+            return tree;
+        }
+        catch (ParseCanceledException)
+        {
+            Interlocked.Increment(ref llFallbacks);
+        }
+
+        // Etapa 2: se rebobina el stream y se parsea en LL con el manejo de errores normal
+        tokens.Seek(0);
+        parser.Reset();
+        parser.AddErrorListener(syntaxErrors);
+        parser.ErrorHandler = new DefaultErrorStrategy();
+        parser.Interpreter.PredictionMode = PredictionMode.LL;
+
+        return parser.program();
+    }
+}
@@ -0,0 +1,101 @@
+using analyzer;
+using Antlr4.Runtime;
+
+// Pool de pares lexer/parser ya configurados. Cada pedido toma un par, le cambia la entrada
+// y lo devuelve; asi no se crean un LanguageLexer, un CommonTokenStream y un LanguageParser
+// (con sus listeners y su ParserATNSimulator) por cada programa.
+// Los arboles que salen del parser no dependen del par, se pueden guardar despues de devolverlo.
+public class ParserPool
+{
+    public sealed class Entry
+    {
+        public readonly LanguageLexer Lexer;
+        public readonly CommonTokenStream Tokens;
+        public readonly LanguageParser Parser;
+
+        public Entry()
+        {
+            Lexer = new LanguageLexer(new AntlrInputStream(""));
+            Lexer.RemoveErrorListeners();
+            Lexer.AddErrorListener(new LexicalErrorListener());
+
+            Tokens = new CommonTokenStream(Lexer);
+            Parser = new LanguageParser(Tokens);
+        }
+
+        // Apunta el par a un nuevo codigo y tokeniza todo
+        public void Reset(string code)
+        {
+            Lexer.SetInputStream(new AntlrInputStream(code));
+            Tokens.SetTokenSource(Lexer);
+            Tokens.Fill();
+            Parser.TokenStream = Tokens;
+        }
+
+        // Suelta el codigo del ultimo pedido para que el pool no lo retenga
+        internal void Release()
+        {
+            Lexer.SetInputStream(new AntlrInputStream(""));
+            Tokens.SetTokenSource(Lexer);
+            Parser.TokenStream = Tokens;
+        }
+    }
+
+    public static ParserPool Shared { get; set; } = new ParserPool(System.Environment.ProcessorCount * 2);
+
+    private readonly object sync = new object();
+    private readonly Stack<Entry> idle = new Stack<Entry>();
+    private readonly int maxSize;
+
+    private long created;
+    private long reused;
+
+    public ParserPool(int maxSize)
+    {
+        this.maxSize = maxSize;
+    }
+
+    public long Created => Interlocked.Read(ref created);
+    public long Reused => Interlocked.Read(ref reused);
+
+    public int Idle
+    {
+        get
+        {
+            lock (sync)
+            {
+                return idle.Count;
+            }
+        }
+    }
+
+    // Si no hay pares libres se crea uno nuevo, el pool nunca bloquea
+    public Entry Rent()
+    {
+        lock (sync)
+        {
+            if (idle.Count > 0)
+            {
+                Interlocked.Increment(ref reused);
+                return idle.Pop();
+            }
+        }
+
+        Interlocked.Increment(ref created);
+        return new Entry();
+    }
+
+    // Los pares que pasan del tamano maximo se dejan al GC
+    public void Return(Entry entry)
+    {
+        entry.Release();
+
+        lock (sync)
+        {
+            if (idle.Count < maxSize)
+            {
+                idle.Push(entry);
+            }
+        }
+    }
+}
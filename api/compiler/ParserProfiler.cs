@@ -0,0 +1,70 @@
+using System.Text;
+using analyzer;
+using Antlr4.Runtime;
+using Antlr4.Runtime.Atn;
+
+// Diagnostico de rendimiento del parser: parsea con el ProfilingATNSimulator de ANTLR
+// y junta las estadisticas de cada decision de la gramatica
+public static class ParserProfiler
+{
+    public static List<DecisionProfile> Profile(string code)
+    {
+        var lexer = new LanguageLexer(new AntlrInputStream(code));
+        lexer.RemoveErrorListeners();
+        lexer.AddErrorListener(new LexicalErrorListener());
+
+        var tokens = new CommonTokenStream(lexer);
+        tokens.Fill();
+
+        var parser = new LanguageParser(tokens);
+        parser.RemoveErrorListeners();
+        parser.AddErrorListener(new SyntaxErrorListener());
+
+        // Profile reemplaza el simulador, el modo se fija despues.
+        // En LL cada decision intenta SLL primero, asi se cuentan los fallbacks a LL
+        parser.Profile = true;
+        parser.Interpreter.PredictionMode = PredictionMode.LL;
+        parser.program();
+
+        var profiles = new List<DecisionProfile>();
+        foreach (var info in parser.ParseInfo.getDecisionInfo())
+        {
+            if (info.invocations == 0)
+            {
+                continue;
+            }
+
+            int ruleIndex = parser.Atn.decisionToState[info.decision].ruleIndex;
+
+            profiles.Add(new DecisionProfile(
+                info.decision,
+                parser.RuleNames[ruleIndex],
+                info.invocations,
+                info.SLL_TotalLook + info.LL_TotalLook,
+                Math.Max(info.SLL_MaxLook, info.LL_MaxLook),
+                info.LL_Fallback,
+                info.ambiguities.Count,
+                info.errors.Count,
+                // timeInPrediction viene en unidades de 100 ns
+                info.timeInPrediction / 10_000.0));
+        }
+
+        return profiles.OrderByDescending(p => p.TimeMs).ThenByDescending(p => p.TotalLook).ToList();
+    }
+
+    // Tabla de texto ordenada por tiempo, una fila por decision
+    public static string Table(List<DecisionProfile> profiles)
+    {
+        var table = new StringBuilder();
+        table.AppendLine($"{"decision",8} {"regla",-14} {"invocaciones",12} {"lookahead",10} {"max",5} {"LL",6} {"ambig",6} {"errores",7} {"tiempo ms",10}");
+
+        foreach (var p in profiles)
+        {
+            table.AppendLine($"{p.Decision,8} {p.Rule,-14} {p.Invocations,12} {p.TotalLook,10} {p.MaxLook,5} {p.LlFallbacks,6} {p.Ambiguities,6} {p.Errors,7} {p.TimeMs,10:F3}");
+        }
+
+        return table.ToString();
+    }
+}
+
+public record DecisionProfile(int Decision, string Rule, long Invocations, long TotalLook, long MaxLook, long LlFallbacks, int Ambiguities, int Errors, double TimeMs);
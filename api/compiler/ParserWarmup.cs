@@ -0,0 +1,141 @@
+using System.Text.Json;
+using analyzer;
+using Antlr4.Runtime.Misc;
+
+// Precalentamiento de los DFA del lexer y del parser.
+// ANTLR no permite serializar los estados del DFA, por eso lo que se guarda en disco
+// son los programas que hicieron crecer el DFA; al volver a parsearlos en el arranque
+// se reconstruyen los mismos estados.
+public static class ParserWarmup
+{
+    private const int MaxPrograms = 256;
+
+    // Los programas son envios de usuarios: solo se guardan los cortos, que alcanzan para
+    // recorrer las mismas reglas y no dejan codigo grande en memoria ni en disco
+    private const int MaxProgramLength = 4 * 1024;
+
+    private static readonly object sync = new object();
+    private static readonly List<string> programs = new List<string>();
+    private static bool warming;
+
+    public static int WarmUp(IEnumerable<string> sources)
+    {
+        int parsed = 0;
+        warming = true;
+
+        try
+        {
+            foreach (var source in sources)
+            {
+                try
+                {
+                    ParserDriver.Parse(source);
+                    parsed++;
+                }
+                catch (ParseCanceledException)
+                {
+                    // Un programa con errores igual deja estados en el DFA
+                }
+            }
+        }
+        finally
+        {
+            warming = false;
+        }
+
+        return parsed;
+    }
+
+    public static int WarmUpDirectory(string directory)
+    {
+        if (!Directory.Exists(directory))
+        {
+            return 0;
+        }
+
+        // Los archivos se parsean desde disco sin cargarlos en un string
+        int parsed = 0;
+        foreach (var file in Directory.GetFiles(directory, "*.glt"))
+        {
+            try
+            {
+                ParserDriver.ParseFile(file, buildTree: false);
+                parsed++;
+            }
+            catch (ParseCanceledException)
+            {
+            }
+        }
+
+        return parsed;
+    }
+
+    // Carga los programas guardados en el arranque anterior y los vuelve a parsear
+    public static int Load(string path)
+    {
+        if (!File.Exists(path))
+        {
+            return 0;
+        }
+
+        List<string>? saved;
+        try
+        {
+            saved = JsonSerializer.Deserialize<List<string>>(File.ReadAllText(path));
+        }
+        catch (JsonException)
+        {
+            return 0;
+        }
+
+        if (saved == null)
+        {
+            return 0;
+        }
+
+        saved = saved.Where(source => source != null && source.Length <= MaxProgramLength).Take(MaxPrograms).ToList();
+
+        lock (sync)
+        {
+            foreach (var source in saved.Take(MaxPrograms - programs.Count))
+            {
+                programs.Add(source);
+            }
+        }
+
+        return WarmUp(saved);
+    }
+
+    public static void Save(string path)
+    {
+        string json;
+        lock (sync)
+        {
+            json = JsonSerializer.Serialize(programs);
+        }
+
+        File.WriteAllText(path, json);
+    }
+
+    // Lo llama el driver cuando un programa agrego estados nuevos al DFA
+    public static void Record(string source)
+    {
+        if (warming || source.Length > MaxProgramLength)
+        {
+            return;
+        }
+
+        lock (sync)
+        {
+            if (programs.Count < MaxPrograms && !programs.Contains(source))
+            {
+                programs.Add(source);
+            }
+        }
+    }
+
+    public static int DfaStates()
+    {
+        return LanguageParser.DfaStateCount() + LanguageLexer.DfaStateCount();
+    }
+}
@@ -0,0 +1,337 @@
+using System.Runtime.CompilerServices;
+
+// Almacenamiento de slices y matrices del AST (AstInterpreter y AstCompiler).
+// Cada tipo de elemento guarda un arreglo de .NET (int[], decimal[], bool[]) en lugar de una
+// lista de ValueWrapper, y append duplica la capacidad como en Go.
+// Offset y Count permiten que la fila de una matriz sea una vista sobre el mismo arreglo.
+public abstract class SliceData
+{
+    public int Offset { get; protected set; }
+    public int Count { get; protected set; }
+
+    public abstract string ElementType { get; }
+
+    public abstract ValueWrapper Get(int index, int pos);
+    public abstract void Set(int index, ValueWrapper value, int pos);
+    public abstract void Append(ValueWrapper value, int pos);
+    public abstract void AppendAll(SliceData values, int pos);
+    public abstract int IndexOf(ValueWrapper value);
+
+    // Vista sin copia, su capacidad es su largo: un append sobre la vista copia y no pisa lo que sigue
+    public abstract SliceData View(int offset, int count);
+
+    public static SliceData Create(string elementType, int capacity)
+    {
+        return elementType switch
+        {
+            "int" => new IntSlice(new int[capacity], 0, 0, capacity),
+            "float64" => new FloatSlice(new decimal[capacity], 0, 0, capacity),
+            "bool" => new BoolSlice(new bool[capacity], 0, 0, capacity),
+            _ => new ValueSlice(elementType, new ValueWrapper[capacity], 0, 0, capacity)
+        };
+    }
+
+    public static SliceData From(string elementType, IReadOnlyList<ValueWrapper> values, int pos)
+    {
+        var slice = Create(elementType, values.Count);
+        foreach (var value in values)
+        {
+            slice.Append(value, pos);
+        }
+
+        return slice;
+    }
+
+    public IEnumerable<ValueWrapper> Values()
+    {
+        for (int i = 0; i < Count; i++)
+        {
+            yield return Get(i, -1);
+        }
+    }
+
+    protected SemanticError Mismatch(ValueWrapper value, int pos)
+    {
+        return new SemanticError($"Error Semantico: el tipo de valor {value.GetType().Name} no coincide con el tipo {ElementType} del Slice", pos);
+    }
+
+    protected static SemanticError OutOfRange(int pos)
+    {
+        return new SemanticError("Error Semántico: Índice fuera de rango", pos);
+    }
+}
+
+public abstract class SliceData<T> : SliceData
+{
+    public T[] Items { get; private set; }
+
+    // Elementos que caben desde Offset sin volver a reservar
+    private int capacity;
+
+    protected SliceData(T[] items, int offset, int count, int capacity)
+    {
+        Items = items;
+        Offset = offset;
+        Count = count;
+        this.capacity = capacity;
+    }
+
+    protected abstract bool TryUnwrap(ValueWrapper value, out T item);
+    protected abstract ValueWrapper Wrap(T item);
+    protected abstract SliceData<T> Create(T[] items, int offset, int count, int capacity);
+
+    // Acceso directo al arreglo con revision de limites
+    public T At(int index, int pos)
+    {
+        if ((uint)index >= (uint)Count)
+        {
+            throw OutOfRange(pos);
+        }
+
+        return Items[Offset + index];
+    }
+
+    public void Put(int index, T item, int pos)
+    {
+        if ((uint)index >= (uint)Count)
+        {
+            throw OutOfRange(pos);
+        }
+
+        Items[Offset + index] = item;
+    }
+
+    public void Add(T item)
+    {
+        Reserve(Count + 1);
+        Items[Offset + Count] = item;
+        Count++;
+    }
+
+    public override ValueWrapper Get(int index, int pos)
+    {
+        return Wrap(At(index, pos));
+    }
+
+    public override void Set(int index, ValueWrapper value, int pos)
+    {
+        if (!TryUnwrap(value, out var item))
+        {
+            throw Mismatch(value, pos);
+        }
+
+        Put(index, item, pos);
+    }
+
+    public override void Append(ValueWrapper value, int pos)
+    {
+        if (!TryUnwrap(value, out var item))
+        {
+            throw Mismatch(value, pos);
+        }
+
+        Add(item);
+    }
+
+    public override void AppendAll(SliceData values, int pos)
+    {
+        if (values is not SliceData<T> typed || typed.ElementType != ElementType)
+        {
+            throw new SemanticError($"Error Semantico: un slice de {values.ElementType} no coincide con el tipo {ElementType}", pos);
+        }
+
+        int count = typed.Count;
+        Reserve(Count + count);
+        Array.Copy(typed.Items, typed.Offset, Items, Offset + Count, count);
+        Count += count;
+    }
+
+    public override int IndexOf(ValueWrapper value)
+    {
+        if (!TryUnwrap(value, out var item))
+        {
+            return -1;
+        }
+
+        int index = Array.IndexOf(Items, item, Offset, Count);
+        return index < 0 ? -1 : index - Offset;
+    }
+
+    public override SliceData View(int offset, int count)
+    {
+        return Create(Items, Offset + offset, count, count);
+    }
+
+    private void Reserve(int needed)
+    {
+        if (needed <= capacity)
+        {
+            return;
+        }
+
+        int length = Math.Max(Math.Max(4, capacity * 2), needed);
+        ExecutionBudget.Charge((long)length * Unsafe.SizeOf<T>());
+
+        var items = new T[length];
+        Array.Copy(Items, Offset, items, 0, Count);
+        Items = items;
+        Offset = 0;
+        capacity = items.Length;
+    }
+}
+
+public sealed class IntSlice : SliceData<int>
+{
+    public IntSlice(int[] items, int offset, int count, int capacity) : base(items, offset, count, capacity)
+    {
+    }
+
+    public override string ElementType => "int";
+
+    protected override bool TryUnwrap(ValueWrapper value, out int item)
+    {
+        item = value is IntValue i ? i.Value : 0;
+        return value is IntValue;
+    }
+
+    protected override ValueWrapper Wrap(int item) => new IntValue(item);
+
+    protected override SliceData<int> Create(int[] items, int offset, int count, int capacity) => new IntSlice(items, offset, count, capacity);
+}
+
+public sealed class FloatSlice : SliceData<decimal>
+{
+    public FloatSlice(decimal[] items, int offset, int count, int capacity) : base(items, offset, count, capacity)
+    {
+    }
+
+    public override string ElementType => "float64";
+
+    protected override bool TryUnwrap(ValueWrapper value, out decimal item)
+    {
+        item = value is FloatValue f ? f.Value : 0;
+        return value is FloatValue;
+    }
+
+    protected override ValueWrapper Wrap(decimal item) => new FloatValue(item);
+
+    protected override SliceData<decimal> Create(decimal[] items, int offset, int count, int capacity) => new FloatSlice(items, offset, count, capacity);
+}
+
+public sealed class BoolSlice : SliceData<bool>
+{
+    public BoolSlice(bool[] items, int offset, int count, int capacity) : base(items, offset, count, capacity)
+    {
+    }
+
+    public override string ElementType => "bool";
+
+    protected override bool TryUnwrap(ValueWrapper value, out bool item)
+    {
+        item = value is BoolValue b && b.Value;
+        return value is BoolValue;
+    }
+
+    protected override ValueWrapper Wrap(bool item) => AstInterpreter.Boolean(item);
+
+    protected override SliceData<bool> Create(bool[] items, int offset, int count, int capacity) => new BoolSlice(items, offset, count, capacity);
+}
+
+// string y rune: el valor ya es inmutable, se guarda tal cual
+public sealed class ValueSlice : SliceData<ValueWrapper>
+{
+    private readonly string elementType;
+
+    public ValueSlice(string elementType, ValueWrapper[] items, int offset, int count, int capacity) : base(items, offset, count, capacity)
+    {
+        this.elementType = elementType;
+    }
+
+    public override string ElementType => elementType;
+
+    protected override bool TryUnwrap(ValueWrapper value, out ValueWrapper item)
+    {
+        item = value;
+        return AstInterpreter.MatchesType(elementType, value);
+    }
+
+    protected override ValueWrapper Wrap(ValueWrapper item) => item;
+
+    protected override SliceData<ValueWrapper> Create(ValueWrapper[] items, int offset, int count, int capacity) => new ValueSlice(elementType, items, offset, count, capacity);
+}
+
+// Matriz en un solo arreglo por filas. Las filas pueden tener distinto largo (matrices irregulares),
+// starts[r] es la posicion de la fila r en Cells y starts[Rows] el final de la ultima.
+public sealed class FlatMatrix
+{
+    public readonly SliceData Cells;
+    private int[] starts = new int[4];
+
+    public int Rows { get; private set; }
+
+    public FlatMatrix(string elementType, int capacity)
+    {
+        Cells = SliceData.Create(elementType, capacity);
+    }
+
+    public string ElementType => Cells.ElementType;
+
+    public void AddRow(SliceData row, int pos)
+    {
+        Cells.AppendAll(row, pos);
+
+        if (Rows + 2 > starts.Length)
+        {
+            ExecutionBudget.Charge(starts.Length * 2L * sizeof(int));
+            Array.Resize(ref starts, starts.Length * 2);
+        }
+
+        Rows++;
+        starts[Rows] = Cells.Count;
+    }
+
+    public int Length(int row)
+    {
+        return starts[row + 1] - starts[row];
+    }
+
+    // Posicion de [row][column] en Cells
+    public int Cell(int row, int column, int pos)
+    {
+        if ((uint)row >= (uint)Rows || (uint)column >= (uint)Length(row))
+        {
+            throw new SemanticError("Error Semantico: Indice fuera de rango", pos);
+        }
+
+        return starts[row] + column;
+    }
+
+    public ValueWrapper Get(int row, int column, int pos)
+    {
+        return Cells.Get(Cell(row, column, pos), pos);
+    }
+
+    public void Set(int row, int column, ValueWrapper value, int pos)
+    {
+        Cells.Set(Cell(row, column, pos), value, pos);
+    }
+
+    // La fila comparte el arreglo de la matriz, escribir en ella modifica la matriz
+    public SliceData Row(int row, int pos)
+    {
+        if ((uint)row >= (uint)Rows)
+        {
+            throw new SemanticError("Error Semántico: Índice fuera de rango", pos);
+        }
+
+        return Cells.View(starts[row], Length(row));
+    }
+
+    public IEnumerable<SliceData> AllRows()
+    {
+        for (int row = 0; row < Rows; row++)
+        {
+            yield return Cells.View(starts[row], Length(row));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+// Distribucion fija de un struct: cada campo recibe un slot al declararse
+// y las instancias guardan sus valores en un arreglo en ese orden.
+public sealed class StructLayout
+{
+    public readonly string[] Names;
+    private readonly Dictionary<string, int> slots;
+
+    public StructLayout(VarDecl[] fields)
+    {
+        Names = new string[fields.Length];
+        slots = new Dictionary<string, int>(fields.Length);
+
+        for (int i = 0; i < fields.Length; i++)
+        {
+            Names[i] = fields[i].Name;
+            slots[fields[i].Name] = i;
+        }
+    }
+
+    public int Count => Names.Length;
+
+    // -1 si el struct no tiene el campo
+    public int SlotOf(string name)
+    {
+        return slots.TryGetValue(name, out int slot) ? slot : -1;
+    }
+}
+
+// Cache monomorfico de un acceso a campos (x.campo, Tipo{a: 1, b: 2}): recuerda el ultimo
+// struct que paso por el nodo y los slots de sus campos. Mientras el struct no cambie
+// el acceso es una comparacion de referencias y una lectura del arreglo.
+// El AST se comparte entre pedidos (ParseCache), la entrada se reemplaza completa para no mezclar hilos.
+public sealed class FieldCache
+{
+    private sealed class Entry
+    {
+        public readonly StructDecl Decl;
+        public readonly int[] Slots;
+
+        public Entry(StructDecl decl, int[] slots)
+        {
+            Decl = decl;
+            Slots = slots;
+        }
+    }
+
+    public readonly string[] Names;
+    private Entry? entry;
+
+    public FieldCache(params string[] names)
+    {
+        Names = names;
+    }
+
+    public int[] Slots(StructDecl decl, int pos)
+    {
+        var cached = entry;
+        if (cached != null && cached.Decl == decl)
+        {
+            return cached.Slots;
+        }
+
+        var slots = new int[Names.Length];
+        for (int i = 0; i < Names.Length; i++)
+        {
+            slots[i] = decl.Layout.SlotOf(Names[i]);
+            if (slots[i] < 0)
+            {
+                throw new SemanticError("Error Semantico: Propiedad " + Names[i] + " no encontrada", pos);
+            }
+        }
+
+        entry = new Entry(decl, slots);
+        return slots;
+    }
+
+    // Slot del unico campo de un acceso x.campo
+    public int Slot(StructDecl decl, int pos)
+    {
+        return Slots(decl, pos)[0];
+    }
+}
@@ -0,0 +1,355 @@
+// Inferencia de tipos estatica sobre el AST que produce AstLowering.
+// Los tipos salen de las declaraciones (var x int, x int, parametros) y del valor inicial de x := e.
+// Las operaciones entre int y float64 con tipo conocido se reemplazan por IntBinary y FloatBinary.
+public class TypeChecker
+{
+    // Tipo de cada slot del frame de una funcion
+    private sealed class FrameTypes
+    {
+        public readonly FrameTypes? Parent;
+        public readonly StaticType[] Slots;
+
+        // Tipo del slot en todas sus declaraciones, Unknown si cambia entre una y otra
+        public readonly StaticType[] Stable;
+        private readonly bool[] declared;
+
+        // Tiene funciones anidadas que pueden leer sus slots desde otro frame
+        public bool Captured;
+
+        public FrameTypes(FrameTypes? parent, int size)
+        {
+            Parent = parent;
+            Slots = new StaticType[size];
+            Stable = new StaticType[size];
+            declared = new bool[size];
+        }
+
+        public void Set(int slot, StaticType type)
+        {
+            Slots[slot] = type;
+            Stable[slot] = declared[slot] && Stable[slot] != type ? StaticType.Unknown : type;
+            declared[slot] = true;
+        }
+    }
+
+    private readonly FrameTypes globals;
+    private FrameTypes frame;
+
+    private TypeChecker(int frameSize)
+    {
+        globals = new FrameTypes(null, frameSize);
+        frame = globals;
+    }
+
+    public static AstProgram Check(AstProgram program)
+    {
+        var checker = new TypeChecker(program.FrameSize);
+        var declarations = new AstStmt[program.Declarations.Length];
+
+        // Primero las globales, asi las funciones conocen su tipo sin importar el orden
+        for (int i = 0; i < declarations.Length; i++)
+        {
+            if (program.Declarations[i] is not FuncDecl)
+            {
+                declarations[i] = checker.Stmt(program.Declarations[i]);
+            }
+        }
+
+        for (int i = 0; i < declarations.Length; i++)
+        {
+            if (program.Declarations[i] is FuncDecl)
+            {
+                declarations[i] = checker.Stmt(program.Declarations[i]);
+            }
+        }
+
+        return new AstProgram(declarations, program.FrameSize);
+    }
+
+    public static StaticType Parse(string? type)
+    {
+        return type switch
+        {
+            "int" => StaticType.Int,
+            "float64" => StaticType.Float,
+            "string" => StaticType.String,
+            "bool" => StaticType.Bool,
+            "rune" => StaticType.Rune,
+            _ => StaticType.Unknown
+        };
+    }
+
+    private static StaticType SliceOf(string elementType)
+    {
+        return elementType switch
+        {
+            "int" => StaticType.IntSlice,
+            "float64" => StaticType.FloatSlice,
+            _ => StaticType.Unknown
+        };
+    }
+
+    private static StaticType MatrixOf(string elementType)
+    {
+        return elementType switch
+        {
+            "int" => StaticType.IntMatrix,
+            "float64" => StaticType.FloatMatrix,
+            _ => StaticType.Unknown
+        };
+    }
+
+    // Tipo de a[i]: el elemento de un slice o la fila de una matriz
+    private static StaticType ElementOf(StaticType type)
+    {
+        return type switch
+        {
+            StaticType.IntSlice => StaticType.Int,
+            StaticType.FloatSlice => StaticType.Float,
+            StaticType.IntMatrix => StaticType.IntSlice,
+            StaticType.FloatMatrix => StaticType.FloatSlice,
+            _ => StaticType.Unknown
+        };
+    }
+
+    private StaticType TypeOf(VarRef variable)
+    {
+        var target = frame;
+        for (int depth = variable.Depth; depth > 0; depth--)
+        {
+            target = target.Parent!;
+        }
+
+        return target.Slots[variable.Slot];
+    }
+
+    private void SetType(int slot, StaticType type)
+    {
+        if (slot >= 0)
+        {
+            frame.Set(slot, type);
+        }
+    }
+
+
+    // Sentencias
+    private AstStmt[] Stmts(AstStmt[] stmts)
+    {
+        return Array.ConvertAll(stmts, Stmt);
+    }
+
+    private AstStmt Stmt(AstStmt stmt)
+    {
+        switch (stmt)
+        {
+            case ExprStmt s:
+                return new ExprStmt(s.Pos, Expr(s.Expr).Node);
+            case VarDecl s:
+            {
+                var init = s.Init == null ? null : Expr(s.Init);
+                // Con tipo declarado el interprete valida el valor, sin tipo vale el del valor inicial.
+                // Con un struct literal los motores no validan el tipo declarado: el slot guarda el struct
+                var type = s.Init is StructLiteral ? StaticType.Unknown
+                    : s.Type != null ? Parse(s.Type) : init?.Type ?? StaticType.Unknown;
+                SetType(s.Slot, type);
+                return new VarDecl(s.Pos, s.Name, s.Type, init?.Node, s.Slot);
+            }
+            case Block s:
+                return new Block(s.Pos, Stmts(s.Body));
+            case IfStmt s:
+                return new IfStmt(s.Pos, Expr(s.Condition).Node, Stmt(s.Then), s.Else == null ? null : Stmt(s.Else));
+            case SwitchStmt s:
+                return new SwitchStmt(s.Pos, Expr(s.Subject).Node,
+                    Array.ConvertAll(s.Cases, c => new SwitchCase(Expr(c.Value).Node, Stmts(c.Body))),
+                    s.Default == null ? null : Stmts(s.Default));
+            case ForStmt s:
+            {
+                var init = Stmt(s.Init);
+                return new ForStmt(s.Pos, init, Expr(s.Condition).Node, Expr(s.Update).Node, Stmt(s.Body));
+            }
+            case WhileStmt s:
+                return new WhileStmt(s.Pos, Expr(s.Condition).Node, Stmt(s.Body));
+            case ForRangeStmt s:
+            {
+                var source = Expr(s.Source);
+                SetType(s.IndexSlot, StaticType.Int);
+                SetType(s.ValueSlot, source.Type == StaticType.IntSlice || source.Type == StaticType.FloatSlice ? ElementOf(source.Type) : StaticType.Unknown);
+                return new ForRangeStmt(s.Pos, s.IndexName, s.ValueName, source.Node, Stmt(s.Body), s.IndexSlot, s.ValueSlot);
+            }
+            case ReturnStmt s:
+                return new ReturnStmt(s.Pos, s.Value == null ? null : Expr(s.Value).Node);
+            case FuncDecl s:
+                return Function(s);
+            case StructDecl s:
+            {
+                SetType(s.Slot, StaticType.Unknown);
+
+                // Los campos se evaluan sobre el frame global
+                var outer = frame;
+                frame = globals;
+
+                try
+                {
+                    return new StructDecl(s.Pos, s.Name, Array.ConvertAll(s.Fields, field => (VarDecl)Stmt(field)), s.Slot);
+                }
+                finally
+                {
+                    frame = outer;
+                }
+            }
+            case SliceDecl s:
+                SetType(s.Slot, SliceOf(s.ElementType));
+                return s;
+            case MatrixDecl s:
+                SetType(s.Slot, MatrixOf(s.ElementType));
+                return new MatrixDecl(s.Pos, s.Name, s.ElementType, Array.ConvertAll(s.Rows, row => Array.ConvertAll(row, e => Expr(e).Node)), s.Slot);
+            default:
+                // break y continue no tienen expresiones
+                return stmt;
+        }
+    }
+
+    private FuncDecl Function(FuncDecl s)
+    {
+        var outer = frame;
+        frame = new FrameTypes(outer, s.FrameSize);
+
+        if (outer != globals)
+        {
+            outer.Captured = true;
+        }
+
+        try
+        {
+            // Los argumentos se validan contra el tipo del parametro al invocar
+            for (int i = 0; i < s.Params.Length; i++)
+            {
+                frame.Set(i, Parse(s.ParamTypes[i]));
+            }
+
+            var body = Stmts(s.Body);
+            var slotTypes = frame.Captured ? Array.Empty<StaticType>() : frame.Stable;
+
+            return new FuncDecl(s.Pos, s.Name, s.Params, s.ParamTypes, s.ReturnType, body, s.Slot, s.FrameSize, slotTypes);
+        }
+        finally
+        {
+            frame = outer;
+        }
+    }
+
+
+    // Expresiones
+    private (AstExpr Node, StaticType Type) Expr(AstExpr expr)
+    {
+        switch (expr)
+        {
+            case IntLiteral:
+                return (expr, StaticType.Int);
+            case FloatLiteral:
+                return (expr, StaticType.Float);
+            case StringLiteral:
+                return (expr, StaticType.String);
+            case BoolLiteral:
+                return (expr, StaticType.Bool);
+            case RuneLiteral:
+                return (expr, StaticType.Rune);
+            case VarRef e:
+                return (expr, TypeOf(e));
+            case Binary e:
+                return Binary(e);
+            case Negate e:
+            {
+                var operand = Expr(e.Operand);
+                var type = operand.Type == StaticType.Int || operand.Type == StaticType.Float ? operand.Type : StaticType.Unknown;
+                return (new Negate(e.Pos, operand.Node), type);
+            }
+            case Not e:
+                return (new Not(e.Pos, Expr(e.Operand).Node), StaticType.Bool);
+            case Assign e:
+            {
+                var value = Expr(e.Value);
+                return (new Assign(e.Pos, Target(e.Target), value.Node), value.Type);
+            }
+            case CompoundAssign e:
+                return (new CompoundAssign(e.Pos, e.Target, e.Op, Expr(e.Value).Node), TypeOf(e.Target));
+            case IncDec e:
+                return (expr, TypeOf(e.Target));
+            case SliceLiteral e:
+                return (new SliceLiteral(e.Pos, e.ElementType, Nodes(e.Elements)), SliceOf(e.ElementType));
+            case IndexExpr e:
+            {
+                // Solo con indice int se puede leer directo del arreglo
+                var index = Expr(e.Index);
+                var type = index.Type == StaticType.Int ? ElementOf(TypeOf(e.Array)) : StaticType.Unknown;
+                return (new IndexExpr(e.Pos, e.Array, index.Node), type);
+            }
+            case MatrixIndexExpr e:
+            {
+                var row = Expr(e.Row);
+                var column = Expr(e.Column);
+                var type = row.Type == StaticType.Int && column.Type == StaticType.Int ? ElementOf(ElementOf(TypeOf(e.Matrix))) : StaticType.Unknown;
+                return (new MatrixIndexExpr(e.Pos, e.Matrix, row.Node, column.Node), type);
+            }
+            case StructLiteral e:
+                return (new StructLiteral(e.Pos, e.Type, e.Fields, Nodes(e.Values)), StaticType.Unknown);
+            case Call e:
+                return (new Call(e.Pos, Expr(e.Callee).Node, Nodes(e.Args)), StaticType.Unknown);
+            case FieldGet e:
+                return (new FieldGet(e.Pos, Expr(e.Target).Node, e.Field), StaticType.Unknown);
+            default:
+                // nil y funciones embebidas
+                return (expr, StaticType.Unknown);
+        }
+    }
+
+    private AstExpr[] Nodes(AstExpr[] exprs)
+    {
+        return Array.ConvertAll(exprs, e => Expr(e).Node);
+    }
+
+    private AstExpr Target(AstExpr target)
+    {
+        return target is VarRef ? target : Expr(target).Node;
+    }
+
+    private (AstExpr Node, StaticType Type) Binary(Binary e)
+    {
+        var left = Expr(e.Left);
+        var right = Expr(e.Right);
+
+        if (e.Op == BinaryOp.And || e.Op == BinaryOp.Or)
+        {
+            return (new Binary(e.Pos, e.Op, left.Node, right.Node), StaticType.Bool);
+        }
+
+        bool comparison = e.Op.IsComparison();
+
+        if (left.Type == StaticType.Int && right.Type == StaticType.Int)
+        {
+            return (new IntBinary(e.Pos, e.Op, left.Node, right.Node), comparison ? StaticType.Bool : StaticType.Int);
+        }
+
+        // int con float64 se opera como float64, el modulo solo existe entre int
+        if (IsNumeric(left.Type) && IsNumeric(right.Type) && e.Op != BinaryOp.Mod)
+        {
+            return (new FloatBinary(e.Pos, e.Op, ToFloat(left), ToFloat(right)), comparison ? StaticType.Bool : StaticType.Float);
+        }
+
+        var type = comparison ? StaticType.Bool
+            : left.Type == StaticType.String && right.Type == StaticType.String && e.Op == BinaryOp.Add ? StaticType.String
+            : StaticType.Unknown;
+
+        return (new Binary(e.Pos, e.Op, left.Node, right.Node), type);
+    }
+
+    private static bool IsNumeric(StaticType type)
+    {
+        return type == StaticType.Int || type == StaticType.Float;
+    }
+
+    private static AstExpr ToFloat((AstExpr Node, StaticType Type) operand)
+    {
+        return operand.Type == StaticType.Int ? new IntToFloat(operand.Node.Pos, operand.Node) : operand.Node;
+    }
+}
@@ -3,7 +3,6 @@ public abstract record ValueWrapper;
 
 public record IntValue(int Value) : ValueWrapper;
 public record FloatValue(decimal Value) : ValueWrapper;
-public record StringValue(string Value) : ValueWrapper;
 public record BoolValue(bool Value) : ValueWrapper;
 public record RuneValue(char Value) : ValueWrapper;
 public record NillValue(object? Value) : ValueWrapper;
@@ -21,3 +20,122 @@ public record StructValue(LanguageStruct languageStruct) : ValueWrapper;
 public record VoidValue : ValueWrapper;
 
 
+// Valores del interprete sobre el AST (AstInterpreter)
+public record ClosureValue(FuncDecl Decl, Frame Closure) : ValueWrapper;
+public record BuiltinValue(string Name) : ValueWrapper;
+public record StructTypeValue(StructDecl Decl) : ValueWrapper;
+// Fields sigue el orden de Decl.Layout
+public record StructInstanceValue(StructDecl Decl, ValueWrapper[] Fields) : ValueWrapper;
+
+// Slices y matrices del AST con almacenamiento tipado (ver Slices.cs)
+public record SliceValue(SliceData Data) : ValueWrapper;
+public record FlatMatrixValue(FlatMatrix Data) : ValueWrapper;
+
+// Funcion del backend compilado (AstCompiler), Code es el delegado generado para el cuerpo
+public record CompiledClosureValue(FuncDecl Decl, Frame Closure, Func<Frame, ValueWrapper> Code) : ValueWrapper;
+
+// Funcion de la VM de registros (BytecodeVM), Function es su codigo compilado
+public record VmClosureValue(BytecodeFunction Function, Frame Closure) : ValueWrapper;
+
+
+// string del lenguaje. s + x no copia los dos lados: arma un nodo que los apunta (rope) y el texto
+// se junta una sola vez cuando alguien lee Value (imprimir, comparar, indexar).
+// Un ciclo s = s + x queda lineal en lugar de cuadratico.
+public record StringValue : ValueWrapper
+{
+    // Debajo de este largo se concatena directo, copiar cuesta menos que el nodo
+    private const int MinRopeLength = 256;
+
+    // Largo maximo de un string de .NET; los nodos no copian texto, asi que s = s + s llega aca
+    // en pocas vueltas y sin reservar casi nada
+    private const int MaxLength = 0x3FFFFFDF;
+
+    private string? flat;
+    private StringValue? left;
+    private StringValue? right;
+
+    public StringValue(string value)
+    {
+        flat = value;
+        Length = value.Length;
+    }
+
+    private StringValue(StringValue left, StringValue right)
+    {
+        this.left = left;
+        this.right = right;
+        Length = left.Length + right.Length;
+    }
+
+    public int Length { get; }
+
+    public string Value => flat ?? Flatten();
+
+    public static StringValue Concat(StringValue left, StringValue right, int pos)
+    {
+        if ((long)left.Length + right.Length > MaxLength)
+        {
+            throw new ExecutionLimitException("Error de ejecucion: se excedio el largo maximo de un string", pos);
+        }
+
+        if (left.Length == 0)
+        {
+            return right;
+        }
+
+        if (right.Length == 0)
+        {
+            return left;
+        }
+
+        if (left.Length + right.Length < MinRopeLength)
+        {
+            return new StringValue(left.Value + right.Value);
+        }
+
+        return new StringValue(left, right);
+    }
+
+    // Se compara el texto, no la forma del arbol
+    public virtual bool Equals(StringValue? other)
+    {
+        return other is not null && (ReferenceEquals(this, other) || Length == other.Length && Value == other.Value);
+    }
+
+    public override int GetHashCode()
+    {
+        return Value.GetHashCode();
+    }
+
+    private string Flatten()
+    {
+        ExecutionBudget.Charge(Length * 2L);
+
+        var text = string.Create(Length, this, static (chars, root) =>
+        {
+            // Sin recursion: un ciclo s = s + x deja el arbol muy profundo hacia la izquierda
+            var pending = new Stack<StringValue>();
+            pending.Push(root);
+            int at = 0;
+
+            while (pending.TryPop(out var node))
+            {
+                if (node.flat != null)
+                {
+                    node.flat.AsSpan().CopyTo(chars.Slice(at));
+                    at += node.flat.Length;
+                    continue;
+                }
+
+                pending.Push(node.right!);
+                pending.Push(node.left!);
+            }
+        });
+
+        // Los lados ya no hacen falta, se sueltan para el GC
+        flat = text;
+        left = null;
+        right = null;
+        return text;
+    }
+}
@@ -0,0 +1,11 @@
+using BenchmarkDotNet.Running;
+
+// dotnet run -c Release --project benchmarks -- --filter '*'
+// Con --filter '*Lexer*', '*Parser*', '*Evaluation*', '*NumberParser*' o '*SliceIndex*' se corre un solo grupo
+public static class BenchmarkMain
+{
+    public static void Main(string[] args)
+    {
+        BenchmarkSwitcher.FromAssembly(typeof(BenchmarkMain).Assembly).Run(args);
+    }
+}
@@ -0,0 +1,66 @@
+using Antlr4.Runtime.Misc;
+using BenchmarkDotNet.Attributes;
+
+// Tiempo de punta a punta: parseo, lowering y ejecucion con cada motor
+[MemoryDiagnoser]
+public class EvaluationBenchmarks
+{
+    private string code = "";
+
+    [ParamsSource(nameof(Inputs))]
+    public string Input { get; set; } = "";
+
+    [Params("interpreter", "compiled", "vm", "visitor")]
+    public string Engine { get; set; } = "";
+
+    public IEnumerable<string> Inputs() => Programs.All();
+
+    [GlobalSetup]
+    public void Setup()
+    {
+        code = Programs.Load(Input);
+    }
+
+    [Benchmark]
+    public string Evaluate()
+    {
+        try
+        {
+            var tree = ParserDriver.Parse(code);
+
+            switch (Engine)
+            {
+                case "visitor":
+                {
+                    var visitor = new CompilerVisitor();
+                    visitor.Visit(tree);
+                    visitor.ExecuteMain();
+                    return visitor.output;
+                }
+                case "compiled":
+                {
+                    var compiled = AstCompiler.Compile(AstLowering.Lower(tree));
+                    compiled.Run();
+                    return compiled.Output;
+                }
+                case "vm":
+                {
+                    var vm = new BytecodeVM(BytecodeCompiler.Compile(AstLowering.Lower(tree)));
+                    vm.Run();
+                    return vm.Output;
+                }
+                default:
+                {
+                    var interpreter = new AstInterpreter();
+                    interpreter.Run(AstLowering.Lower(tree));
+                    return interpreter.Output;
+                }
+            }
+        }
+        catch (Exception ex) when (ex is SemanticError or ParseCanceledException or BreakException or ContinueException)
+        {
+            // Un programa con errores se mide hasta el error
+            return ex.Message;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+using analyzer;
+using Antlr4.Runtime;
+using BenchmarkDotNet.Attributes;
+
+// Tokens por segundo de LanguageLexer: tokens / tiempo medio de la operacion
+[MemoryDiagnoser]
+public class LexerBenchmarks
+{
+    private string code = "";
+
+    [ParamsSource(nameof(Inputs))]
+    public string Input { get; set; } = "";
+
+    public IEnumerable<string> Inputs() => Programs.All();
+
+    [GlobalSetup]
+    public void Setup()
+    {
+        code = Programs.Load(Input);
+    }
+
+    [Benchmark]
+    public int Tokenize()
+    {
+        var lexer = new LanguageLexer(new AntlrInputStream(code));
+        var tokens = new CommonTokenStream(lexer);
+        tokens.Fill();
+
+        return tokens.Size;
+    }
+}
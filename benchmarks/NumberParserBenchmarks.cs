@@ -0,0 +1,94 @@
+using System.Globalization;
+using BenchmarkDotNet.Attributes;
+using BenchmarkDotNet.Configs;
+
+// strconv.Atoi y strconv.ParseFloat: NumberParser contra int.Parse y decimal.Parse,
+// que era lo que usaban antes (un valor invalido lanzaba una excepcion)
+[MemoryDiagnoser]
+[GroupBenchmarksBy(BenchmarkLogicalGroupRule.ByCategory)]
+public class NumberParserBenchmarks
+{
+    private string[] ints = Array.Empty<string>();
+    private string[] floats = Array.Empty<string>();
+
+    // "validos" solo numeros bien formados, "invalidos" uno de cada cuatro no es numero
+    [Params("validos", "invalidos")]
+    public string Input { get; set; } = "";
+
+    [GlobalSetup]
+    public void Setup()
+    {
+        var random = new Random(42);
+        ints = new string[1024];
+        floats = new string[1024];
+
+        for (int i = 0; i < ints.Length; i++)
+        {
+            bool invalid = Input == "invalidos" && i % 4 == 0;
+            ints[i] = invalid ? "12a" + i : random.Next(-1_000_000, 1_000_000).ToString(CultureInfo.InvariantCulture);
+            floats[i] = invalid ? "1.2a" + i : (random.Next(-100_000, 100_000) / 100m).ToString(CultureInfo.InvariantCulture);
+        }
+    }
+
+    [Benchmark(Baseline = true), BenchmarkCategory("Atoi")]
+    public long IntParse()
+    {
+        long total = 0;
+        foreach (var value in ints)
+        {
+            try
+            {
+                total += int.Parse(value, NumberStyles.Integer, CultureInfo.InvariantCulture);
+            }
+            catch (FormatException)
+            {
+                total--;
+            }
+        }
+
+        return total;
+    }
+
+    [Benchmark, BenchmarkCategory("Atoi")]
+    public long TryParseInt()
+    {
+        long total = 0;
+        foreach (var value in ints)
+        {
+            total += NumberParser.TryParseInt(value, out int result) ? result : -1;
+        }
+
+        return total;
+    }
+
+    [Benchmark(Baseline = true), BenchmarkCategory("ParseFloat")]
+    public decimal DecimalParse()
+    {
+        decimal total = 0;
+        foreach (var value in floats)
+        {
+            try
+            {
+                total += decimal.Parse(value, NumberStyles.Float, CultureInfo.InvariantCulture);
+            }
+            catch (FormatException)
+            {
+                total--;
+            }
+        }
+
+        return total;
+    }
+
+    [Benchmark, BenchmarkCategory("ParseFloat")]
+    public decimal TryParseFloat()
+    {
+        decimal total = 0;
+        foreach (var value in floats)
+        {
+            total += NumberParser.TryParseFloat(value, out decimal result) ? result : -1;
+        }
+
+        return total;
+    }
+}
@@ -0,0 +1,54 @@
+using analyzer;
+using Antlr4.Runtime;
+using Antlr4.Runtime.Atn;
+using Antlr4.Runtime.Misc;
+using BenchmarkDotNet.Attributes;
+
+// Tiempo de LanguageParser.program() sobre tokens ya generados, en SLL y en LL.
+// El DFA de ANTLR es compartido, asi que se mide con el DFA ya caliente como en el servidor.
+[MemoryDiagnoser]
+public class ParserBenchmarks
+{
+    private CommonTokenStream tokens = null!;
+
+    [ParamsSource(nameof(Inputs))]
+    public string Input { get; set; } = "";
+
+    [Params("SLL", "LL")]
+    public string Mode { get; set; } = "";
+
+    public IEnumerable<string> Inputs() => Programs.All();
+
+    [GlobalSetup]
+    public void Setup()
+    {
+        var lexer = new LanguageLexer(new AntlrInputStream(Programs.Load(Input)));
+        tokens = new CommonTokenStream(lexer);
+        tokens.Fill();
+    }
+
+    [Benchmark]
+    public LanguageParser.ProgramContext? Parse()
+    {
+        tokens.Seek(0);
+
+        var parser = new LanguageParser(tokens);
+        parser.RemoveErrorListeners();
+        parser.Interpreter.PredictionMode = Mode == "SLL" ? PredictionMode.SLL : PredictionMode.LL;
+
+        if (Mode == "SLL")
+        {
+            parser.ErrorHandler = new BailErrorStrategy();
+        }
+
+        try
+        {
+            return parser.program();
+        }
+        catch (ParseCanceledException)
+        {
+            // El programa necesita LL, el tiempo hasta el fallo tambien cuenta
+            return null;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+using System.Text;
+
+// Programas de entrada para los benchmarks: archivos de archivos_entrada y programas sinteticos
+public static class Programs
+{
+    public static readonly string[] Files = { "structs.glt", "intermedias.glt", "slices.glt" };
+
+    // Nombres que aceptan los [Params] de los benchmarks
+    public static IEnumerable<string> All()
+    {
+        foreach (var file in Files)
+        {
+            yield return file;
+        }
+
+        yield return "sintetico-100";
+        yield return "sintetico-1000";
+        yield return "matriz-32";
+    }
+
+    public static string Load(string name)
+    {
+        if (name.StartsWith("sintetico-"))
+        {
+            return Synthetic(int.Parse(name.Substring("sintetico-".Length)));
+        }
+
+        if (name.StartsWith("matriz-"))
+        {
+            return Matrix(int.Parse(name.Substring("matriz-".Length)));
+        }
+
+        return File.ReadAllText(Path.Combine(InputDirectory(), name));
+    }
+
+    // Busca archivos_entrada subiendo desde la carpeta del ejecutable
+    private static string InputDirectory()
+    {
+        for (var dir = new DirectoryInfo(AppContext.BaseDirectory); dir != null; dir = dir.Parent)
+        {
+            var candidate = Path.Combine(dir.FullName, "archivos_entrada");
+            if (Directory.Exists(candidate))
+            {
+                return candidate;
+            }
+        }
+
+        throw new DirectoryNotFoundException("No se encontro la carpeta archivos_entrada");
+    }
+
+    // Programa con n funciones de ciclos, condiciones y aritmetica entera, y un main que las llama
+    public static string Synthetic(int functions)
+    {
+        var code = new StringBuilder();
+
+        for (int i = 0; i < functions; i++)
+        {
+            code.Append("func f").Append(i).Append("(n int) int {\n");
+            code.Append("    total := 0\n");
+            code.Append("    for j := 0; j < n; j++ {\n");
+            code.Append("        if j % 2 == 0 {\n");
+            code.Append("            total += j * ").Append(i + 1).Append('\n');
+            code.Append("        } else {\n");
+            code.Append("            total -= 1\n");
+            code.Append("        }\n");
+            code.Append("    }\n");
+            code.Append("    return total\n");
+            code.Append("}\n\n");
+        }
+
+        code.Append("func main() {\n");
+        for (int i = 0; i < functions; i++)
+        {
+            code.Append("    fmt.Println(f").Append(i).Append("(100))\n");
+        }
+        code.Append("}\n");
+
+        return code.ToString();
+    }
+
+    // Multiplicacion de dos matrices n x n con tres ciclos anidados; solo se imprime la suma del resultado
+    public static string Matrix(int n)
+    {
+        var code = new StringBuilder();
+        code.Append("func main() {\n");
+        AppendMatrix(code, "a", n, (i, j) => i + j);
+        AppendMatrix(code, "b", n, (i, j) => (i * j) % 10);
+        AppendMatrix(code, "c", n, (i, j) => 0);
+
+        code.Append("    for i := 0; i < ").Append(n).Append("; i++ {\n");
+        code.Append("        for j := 0; j < ").Append(n).Append("; j++ {\n");
+        code.Append("            suma := 0\n");
+        code.Append("            for k := 0; k < ").Append(n).Append("; k++ {\n");
+        code.Append("                suma += a[i][k] * b[k][j]\n");
+        code.Append("            }\n");
+        code.Append("            c[i][j] = suma\n");
+        code.Append("        }\n");
+        code.Append("    }\n\n");
+
+        code.Append("    total := 0\n");
+        code.Append("    for i := 0; i < ").Append(n).Append("; i++ {\n");
+        code.Append("        for j := 0; j < ").Append(n).Append("; j++ {\n");
+        code.Append("            total += c[i][j]\n");
+        code.Append("        }\n");
+        code.Append("    }\n");
+        code.Append("    fmt.Println(total)\n");
+        code.Append("}\n");
+
+        return code.ToString();
+    }
+
+    // La gramatica solo crea matrices con literales, una fila por linea
+    private static void AppendMatrix(StringBuilder code, string name, int n, Func<int, int, int> value)
+    {
+        code.Append("    ").Append(name).Append(" := [][]int{\n");
+        for (int i = 0; i < n; i++)
+        {
+            code.Append("        {");
+            for (int j = 0; j < n; j++)
+            {
+                code.Append(j == 0 ? "" : ", ").Append(value(i, j));
+            }
+            code.Append("},\n");
+        }
+        code.Append("    }\n\n");
+    }
+}
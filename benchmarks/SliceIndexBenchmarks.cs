@@ -0,0 +1,37 @@
+using BenchmarkDotNet.Attributes;
+
+// slices.Index sobre []int segun el largo del slice: la busqueda de IntSlice (Array.IndexOf sobre
+// el int[], vectorizada por el runtime) contra un recorrido elemento por elemento con ValueWrapper,
+// que es como buscaba el slice antes de tener arreglos tipados. El valor buscado no esta, se recorre todo
+[MemoryDiagnoser]
+public class SliceIndexBenchmarks
+{
+    private SliceData ints = SliceData.Create("int", 0);
+    private SliceData boxed = SliceData.Create("string", 0);
+    private readonly ValueWrapper missing = new IntValue(-1);
+
+    [Params(16, 256, 4096, 65536, 1048576)]
+    public int Length { get; set; }
+
+    [GlobalSetup]
+    public void Setup()
+    {
+        var values = Enumerable.Range(0, Length).Select(i => (ValueWrapper)new IntValue(i)).ToList();
+
+        ints = SliceData.From("int", values, 0);
+        // ValueSlice guarda los IntValue tal cual, sin convertirlos
+        boxed = new ValueSlice("int", values.ToArray(), 0, values.Count, values.Count);
+    }
+
+    [Benchmark(Baseline = true)]
+    public int Boxed()
+    {
+        return boxed.IndexOf(missing);
+    }
+
+    [Benchmark]
+    public int Typed()
+    {
+        return ints.IndexOf(missing);
+    }
+}